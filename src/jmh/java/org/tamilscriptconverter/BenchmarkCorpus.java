@@ -0,0 +1,109 @@
+package org.tamilscriptconverter;
+
+import java.util.Random;
+
+/**
+ * Generates the texts used by the benchmarks, so that the results don't depend on files which are not part of
+ * the project. The same seed always produces the same corpus.
+ *
+ * @since 1.0
+ */
+public enum BenchmarkCorpus
+{
+    /**
+     * Short song lines like the ones in ejamaananae-source.txt, some of them starting with a verse number
+     */
+    LYRICS
+            {
+                @Override
+                String nextLine(Random random, int lineNumber)
+                {
+                    String line = words(random, 3 + random.nextInt(4));
+                    return lineNumber % 8 == 0 ? (lineNumber / 8 + 1) + ". " + line : line;
+                }
+            },
+    /**
+     * Long paragraphs of Tamil prose
+     */
+    PROSE
+            {
+                @Override
+                String nextLine(Random random, int lineNumber)
+                {
+                    return words(random, 150 + random.nextInt(100));
+                }
+            },
+    /**
+     * Tamil mixed with Latin words and digits
+     */
+    MIXED
+            {
+                @Override
+                String nextLine(Random random, int lineNumber)
+                {
+                    StringBuilder line = new StringBuilder();
+                    int wordCount = 5 + random.nextInt(10);
+                    for (int i = 0; i < wordCount; i++) {
+                        if (i > 0) {
+                            line.append(' ');
+                        }
+                        int kind = random.nextInt(4);
+                        if (kind == 0) {
+                            line.append(LATIN_WORDS[random.nextInt(LATIN_WORDS.length)]);
+                        } else if (kind == 1) {
+                            line.append(random.nextInt(2000));
+                        } else {
+                            appendWord(random, line);
+                        }
+                    }
+                    return line.toString();
+                }
+            };
+
+    private static final String VOWELS = "அஆஇஈஉஊஎஏஐஒஓ";
+    private static final String CONSONANTS = "கஙசஞடணதநனபமயரறலளழவஷஸஜ";
+    private static final String SIGNS = "ாிீுூெேைொோௌ்";
+    private static final String[] LATIN_WORDS = {"Lord", "Jesus", "chorus", "amen", "hallelujah", "verse", "G", "Am"};
+    private static final int LINE_COUNT = 100;
+
+    abstract String nextLine(Random random, int lineNumber);
+
+    /**
+     * @return the lines of this corpus
+     */
+    public String[] lines()
+    {
+        Random random = new Random(ordinal() + 1);
+        String[] lines = new String[LINE_COUNT];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = nextLine(random, i);
+        }
+        return lines;
+    }
+
+    private static String words(Random random, int count)
+    {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                words.append(' ');
+            }
+            appendWord(random, words);
+        }
+        return words.toString();
+    }
+
+    private static void appendWord(Random random, StringBuilder word)
+    {
+        int syllableCount = 1 + random.nextInt(5);
+        if (random.nextInt(4) == 0) {
+            word.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+        }
+        for (int i = 0; i < syllableCount; i++) {
+            word.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+            if (random.nextInt(3) > 0) {
+                word.append(SIGNS.charAt(random.nextInt(SIGNS.length())));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.tamilscriptconverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the end to end conversion of a song file written from a {@link BenchmarkCorpus}.
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertFileBenchmark
+{
+    @Param({"LYRICS", "PROSE", "MIXED"})
+    private BenchmarkCorpus corpus;
+    private File source;
+    private File target;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        File directory = Files.createTempDirectory("tamilscriptconverter-benchmark").toFile();
+        source = new File(directory, corpus.name().toLowerCase() + ".txt");
+        target = TamilScriptConverter.getTargetFile(source);
+        Files.write(source.toPath(), Arrays.asList(corpus.lines()), StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(target.toPath());
+        Files.deleteIfExists(target.getParentFile().toPath());
+        Files.deleteIfExists(source.toPath());
+        Files.deleteIfExists(source.getParentFile().toPath());
+    }
+
+    @Benchmark
+    public File convertFile() throws IOException
+    {
+        TamilScriptConverter.convertFile(source, target);
+        return target;
+    }
+}
@@ -0,0 +1,119 @@
+package org.tamilscriptconverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the time taken by the command line converter to convert a song of one line, from the launch of the JVM
+ * until it exits once the converted line is written, with and without the class data sharing archive created by the
+ * startup profile. The jar and the archive must be built first using: mvn -Pstartup package
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark
+{
+    private static final File TARGET_DIRECTORY = new File("target");
+    private static final File ARCHIVE = new File(TARGET_DIRECTORY, "tamilscriptconverter.jsa");
+
+    /**
+     * The options of the JVM launched.
+     */
+    public enum Launch
+    {
+        DEFAULT,
+        CDS("-XX:SharedArchiveFile=" + ARCHIVE.getPath()),
+        CDS_C1("-XX:SharedArchiveFile=" + ARCHIVE.getPath(), "-XX:TieredStopAtLevel=1");
+
+        private final List<String> options;
+
+        Launch(String... options)
+        {
+            this.options = Arrays.asList(options);
+        }
+    }
+
+    @Param({"DEFAULT", "CDS", "CDS_C1"})
+    private Launch launch;
+    @Param({"false", "true"})
+    private boolean quiet;
+    private File source;
+    private List<String> command;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        File[] jars = TARGET_DIRECTORY.listFiles();
+        File jar = null;
+        for (File file : jars != null ? jars : new File[0]) {
+            if (file.getName().endsWith("-jar-with-dependencies.jar")) {
+                jar = file;
+            }
+        }
+        if (jar == null || (launch != Launch.DEFAULT && !ARCHIVE.isFile())) {
+            throw new IllegalStateException("Build the jar and its archive using: mvn -Pstartup package");
+        }
+        File directory = Files.createTempDirectory("tamilscriptconverter-startup").toFile();
+        source = new File(directory, "song.txt");
+        Files.write(source.toPath(), Collections.singletonList(BenchmarkCorpus.LYRICS.lines()[0]),
+                StandardCharsets.UTF_8);
+        command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(launch.options);
+        command.add("-jar");
+        command.add(jar.getPath());
+        if (quiet) {
+            command.add("--quiet");
+        }
+        command.add(source.getPath());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        File target = TamilScriptConverter.getTargetFile(source);
+        Files.deleteIfExists(target.toPath());
+        Files.deleteIfExists(target.getParentFile().toPath());
+        Files.deleteIfExists(source.toPath());
+        Files.deleteIfExists(source.getParentFile().toPath());
+    }
+
+    @Benchmark
+    public int convertFirstLine() throws IOException, InterruptedException
+    {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException(command + " exited with " + exitCode);
+        }
+        return exitCode;
+    }
+}
@@ -0,0 +1,138 @@
+package org.tamilscriptconverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the conversion of the lines of a {@link BenchmarkCorpus}, one operation converts all the lines.
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TamilScriptConverterBenchmark
+{
+    @Param({"LYRICS", "PROSE", "MIXED"})
+    private BenchmarkCorpus corpus;
+    private String[] lines;
+    private String[] convertedLines;
+    private MultiTransliterator schemes;
+
+    @Setup
+    public void setUp()
+    {
+        lines = corpus.lines();
+        convertedLines = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            convertedLines[i] = TamilScriptConverter.convert(lines[i]);
+        }
+        schemes = new MultiTransliterator(Arrays.asList(Transliterator.DEFAULT,
+                new Transliterator(MappingTable.fromResource("search.mapping")),
+                new Transliterator(MappingTable.ISO_15919)));
+    }
+
+    @Benchmark
+    public void convert(Blackhole blackhole)
+    {
+        for (String line : lines) {
+            blackhole.consume(TamilScriptConverter.convert(line));
+        }
+    }
+
+    /**
+     * The conversion to the house style, search and ISO 15919 romanisations in a single scan
+     */
+    @Benchmark
+    public void convertSchemes(Blackhole blackhole)
+    {
+        for (String line : lines) {
+            blackhole.consume(schemes.convert(line));
+        }
+    }
+
+    /**
+     * The same romanisations as {@link #convertSchemes(Blackhole)}, converting each line once per romanisation
+     */
+    @Benchmark
+    public void convertSchemesSeparately(Blackhole blackhole)
+    {
+        for (String line : lines) {
+            for (Transliterator transliterator : schemes.getTransliterators()) {
+                blackhole.consume(transliterator.convert(line));
+            }
+        }
+    }
+
+    @Benchmark
+    public void splitUnicodeChars(Blackhole blackhole)
+    {
+        for (String line : lines) {
+            blackhole.consume(TamilScriptConverter.splitUnicodeChars(line));
+        }
+    }
+
+    /**
+     * The conversion one grapheme at a time, whose trace logging is disabled by logback-benchmark.xml
+     */
+    @Benchmark
+    public void convertGraphemes(Blackhole blackhole)
+    {
+        for (String line : lines) {
+            List<String> unicodeChars = TamilScriptConverter.splitUnicodeChars(line);
+            for (int i = 0; i < unicodeChars.size(); i++) {
+                String unicodeChar = unicodeChars.get(i);
+                if (TamilScriptConverter.endsWithVowelSign(unicodeChar)) {
+                    blackhole.consume(TamilScriptConverter.convertCharWithVowelSign(unicodeChar,
+                            i > 0 ? unicodeChars.get(i - 1) : "  "));
+                } else {
+                    blackhole.consume(TamilScriptConverter.convertChar(unicodeChar));
+                }
+            }
+        }
+    }
+
+    /**
+     * The conversion recording each step, to compare with {@link #convert(Blackhole)}
+     */
+    @Benchmark
+    public void trace(Blackhole blackhole)
+    {
+        for (String line : lines) {
+            blackhole.consume(Transliterator.DEFAULT.trace(line));
+        }
+    }
+
+    @Benchmark
+    public void formatTamilText(Blackhole blackhole)
+    {
+        for (String line : lines) {
+            blackhole.consume(TamilScriptConverter.formatTamilText(line));
+        }
+    }
+
+    @Benchmark
+    public void formatConvertedText(Blackhole blackhole)
+    {
+        for (String convertedLine : convertedLines) {
+            blackhole.consume(TamilScriptConverter.formatConvertedText(convertedLine));
+        }
+    }
+}
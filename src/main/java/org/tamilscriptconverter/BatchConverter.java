@@ -0,0 +1,216 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Converts the files in a directory and its sub directories using a fixed number of threads, reading and writing
+ * them using virtual threads. A file which can't be converted is logged and counted, it doesn't stop the conversion
+ * of the other files.
+ *
+ * @since 1.0
+ */
+public class BatchConverter
+{
+    static final String TARGET_DIRECTORY_NAME = "converted";
+    private static Logger logger = LoggerFactory.getLogger(BatchConverter.class);
+    private final int threadCount;
+    private boolean memoryMapped;
+    private boolean incremental;
+    private boolean parallel;
+    private SongFormat songFormat = SongFormat.DEFAULT;
+
+    public BatchConverter(int threadCount)
+    {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count should be at least 1 but was " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Sets whether the files should be converted by memory mapping them, using the {@link MappedFileConverter}.
+     */
+    public void setMemoryMapped(boolean memoryMapped)
+    {
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * Sets whether only the files which have changed since the last conversion of the directory should be
+     * converted, using a {@link ConversionManifest}. The converted files whose source has been removed are deleted.
+     */
+    public void setIncremental(boolean incremental)
+    {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Sets whether a single file should be split into chunks converted by all the threads, using the
+     * {@link ParallelFileConverter}, instead of being converted by a single thread.
+     */
+    public void setParallel(boolean parallel)
+    {
+        this.parallel = parallel;
+    }
+
+    public ConversionSummary convert(File source) throws IOException
+    {
+        ConversionSummary summary = new ConversionSummary();
+        if (!source.exists()) {
+            logger.error("File {} doesn't exist!", source);
+        } else if (source.isFile() && parallel) {
+            ParallelFileConverter converter = new ParallelFileConverter(threadCount);
+            converter.setSongFormat(songFormat);
+            summary.addFile(converter.convertFile(source, TamilScriptConverter.getTargetFile(source),
+                    StandardCharsets.UTF_8), source.length());
+        } else if (source.isFile()) {
+            summary.addFile(convertFile(source), source.length());
+        } else {
+            List<File> files = listSourceFiles(source);
+            logger.info("Preparing to convert {} files in {} using {} threads", files.size(), source, threadCount);
+            ConversionManifest manifest = null;
+            if (incremental) {
+                manifest = ConversionManifest.load(source, songFormat.getVersion());
+                summary.addDeletedFiles(manifest.removeMissing(files));
+            }
+            convert(files, manifest, summary);
+            if (manifest != null) {
+                manifest.save();
+            }
+        }
+        summary.finish();
+        logger.info("{}", summary);
+        return summary;
+    }
+
+    /**
+     * Converts the files using a {@link ConversionPipeline}, or a task per file when they are memory mapped since
+     * they are then too large to be held in memory.
+     *
+     * @param manifest the manifest of the files already converted, or null to convert all the files
+     */
+    private void convert(List<File> files, final ConversionManifest manifest, final ConversionSummary summary)
+    {
+        if (memoryMapped) {
+            convertMappedFiles(files, manifest, summary);
+            return;
+        }
+        try {
+            new ConversionPipeline(threadCount, songFormat).convert(files, manifest, summary);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while converting {} files", files.size());
+        }
+    }
+
+    private void convertMappedFiles(List<File> files, final ConversionManifest manifest,
+                                    final ConversionSummary summary)
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Long>> results = new ArrayList<>(files.size());
+            for (final File file : files) {
+                results.add(executor.submit(new Callable<Long>()
+                {
+                    @Override
+                    public Long call() throws IOException
+                    {
+                        if (manifest == null) {
+                            return convertFile(file);
+                        }
+                        if (manifest.isUpToDate(file)) {
+                            summary.addSkippedFile();
+                            return null;
+                        }
+                        //the memory mapped file is hashed before it is converted, and only recorded if it
+                        //hasn't been modified meanwhile
+                        long size = file.length();
+                        long lastModified = file.lastModified();
+                        String hash = ConversionManifest.hash(file);
+                        long lineCount = convertFile(file);
+                        if (file.length() == size && file.lastModified() == lastModified) {
+                            manifest.add(file, size, lastModified, hash);
+                        }
+                        return lineCount;
+                    }
+                }));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                File file = files.get(i);
+                try {
+                    Long lineCount = results.get(i).get();
+                    if (lineCount != null) {
+                        summary.addFile(lineCount, file.length());
+                    }
+                } catch (ExecutionException ex) {
+                    logger.error("Error occurred while converting " + file, ex.getCause());
+                    summary.addFailedFile();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("Interrupted while converting the files in {}", file.getParentFile());
+                    return;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sets the format in which the lines of the files are written, which is shared by all the threads.
+     */
+    public void setSongFormat(SongFormat songFormat)
+    {
+        this.songFormat = songFormat;
+    }
+
+    private long convertFile(File source) throws IOException
+    {
+        File target = TamilScriptConverter.getTargetFile(source);
+        if (memoryMapped) {
+            return MappedFileConverter.convertFile(source, target, StandardCharsets.UTF_8, songFormat);
+        }
+        return TamilScriptConverter.convertFile(source, target, songFormat);
+    }
+
+    /**
+     * Lists the files in the given directory and its sub directories, skipping the directories in which the
+     * converted files are written.
+     */
+    static List<File> listSourceFiles(File directory)
+    {
+        List<File> files = new ArrayList<>();
+        addSourceFiles(directory, files);
+        return files;
+    }
+
+    private static void addSourceFiles(File directory, List<File> files)
+    {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            logger.warn("Unable to list the files in {}", directory);
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                if (!TARGET_DIRECTORY_NAME.equals(child.getName())) {
+                    addSourceFiles(child, files);
+                }
+            } else if (child.isFile()) {
+                files.add(child);
+            }
+        }
+    }
+}
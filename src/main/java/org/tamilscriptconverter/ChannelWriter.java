@@ -0,0 +1,119 @@
+package org.tamilscriptconverter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A writer which encodes the chars into a direct byte buffer and writes it to a channel once it is full.
+ *
+ * @since 1.0
+ */
+class ChannelWriter extends Writer
+{
+    private static final int CHAR_BUFFER_SIZE = 8192;
+    private static final int BYTE_BUFFER_SIZE = 1 << 20;
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+
+    ChannelWriter(WritableByteChannel channel, Charset charset)
+    {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException
+    {
+        while (length > 0) {
+            int count = Math.min(length, chars.remaining());
+            chars.put(buffer, offset, count);
+            offset += count;
+            length -= count;
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException
+    {
+        while (length > 0) {
+            int count = Math.min(length, chars.remaining());
+            text.getChars(offset, offset + count, chars.array(), chars.arrayOffset() + chars.position());
+            chars.position(chars.position() + count);
+            offset += count;
+            length -= count;
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException
+    {
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put((char) c);
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        encode(false);
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            encode(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void encode(boolean endOfInput) throws IOException
+    {
+        chars.flip();
+        CoderResult result;
+        while ((result = encoder.encode(chars, bytes, endOfInput)).isOverflow()) {
+            drain();
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        //keeps a high surrogate whose low surrogate hasn't been written yet
+        chars.compact();
+    }
+
+    private void drain() throws IOException
+    {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,256 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the source files converted in a directory, so that converting the directory again only converts the
+ * files which have changed since. A file is recorded with its size, modification time and the SHA-256 of its
+ * content, the content being compared only when the size or modification time have changed. The size and
+ * modification time are the ones found before reading the file and the hash is the one of the bytes actually
+ * converted, so that a file modified while it is converted is converted again. All the files are converted again
+ * when the version of the song format changes, the converted files of the sources deleted since being removed all
+ * the same.
+ * <p>
+ * The manifest is a tab separated file written in the converted directory of the root directory. Can be updated
+ * by several threads at once.
+ *
+ * @since 1.0
+ */
+public class ConversionManifest
+{
+    static final String FILE_NAME = ".manifest";
+    private static final String VERSION_PREFIX = "# version ";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    private static Logger logger = LoggerFactory.getLogger(ConversionManifest.class);
+    private final File directory;
+    private final File file;
+    private final String version;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    //the sources recorded for another version of the song format, only kept to remove their converted files
+    private final Set<String> previousSources = ConcurrentHashMap.newKeySet();
+
+    private ConversionManifest(File directory, String version)
+    {
+        this.directory = directory;
+        this.file = new File(new File(directory, BatchConverter.TARGET_DIRECTORY_NAME), FILE_NAME);
+        this.version = version;
+    }
+
+    /**
+     * Loads the manifest of the given directory, which is empty if it doesn't exist yet or was written for
+     * another version of the song format, apart from the sources to give to {@link #removeMissing(Iterable)}.
+     */
+    public static ConversionManifest load(File directory, String version) throws IOException
+    {
+        ConversionManifest manifest = new ConversionManifest(directory, version);
+        if (!manifest.file.isFile()) {
+            return manifest;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(manifest.file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            boolean sameVersion = line != null && line.equals(VERSION_PREFIX + version);
+            if (!sameVersion) {
+                logger.info("The song format has changed since {} was written, converting all the files again",
+                        manifest.file);
+            }
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length != 4) {
+                    logger.warn("Ignoring the invalid line \"{}\" of {}", line, manifest.file);
+                    continue;
+                }
+                try {
+                    Entry entry = new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]);
+                    if (sameVersion) {
+                        manifest.entries.put(fields[0], entry);
+                    } else {
+                        manifest.previousSources.add(fields[0]);
+                    }
+                } catch (NumberFormatException ex) {
+                    logger.warn("Ignoring the invalid line \"{}\" of {}", line, manifest.file);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * @return whether the given source file has been converted since it last changed, and its converted file still
+     * exists
+     */
+    public boolean isUpToDate(File source) throws IOException
+    {
+        Entry entry = entries.get(getKey(source));
+        if (entry == null || !TamilScriptConverter.getTargetFile(source).isFile()) {
+            return false;
+        }
+        long size = source.length();
+        long lastModified = source.lastModified();
+        if (entry.size == size && entry.lastModified == lastModified) {
+            return true;
+        }
+        if (entry.size == size && entry.hash.equals(hash(source))) {
+            //touched without being modified
+            entries.put(getKey(source), new Entry(size, lastModified, entry.hash));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records the given source file as converted.
+     *
+     * @param size         the size of the file found before reading it
+     * @param lastModified the modification time of the file found before reading it
+     * @param hash         the hash of the bytes converted, see {@link #hash(byte[])}
+     */
+    public void add(File source, long size, long lastModified, String hash)
+    {
+        entries.put(getKey(source), new Entry(size, lastModified, hash));
+        previousSources.remove(getKey(source));
+    }
+
+    /**
+     * Deletes the converted files of the recorded source files which are not in the given list anymore, and
+     * forgets them.
+     *
+     * @return the number of converted files deleted
+     */
+    public int removeMissing(Iterable<File> sources)
+    {
+        Set<String> missing = new TreeSet<>(entries.keySet());
+        missing.addAll(previousSources);
+        for (File source : sources) {
+            missing.remove(getKey(source));
+        }
+        int deletedCount = 0;
+        for (String key : missing) {
+            File target = TamilScriptConverter.getTargetFile(new File(directory, key));
+            if (target.isFile() && target.delete()) {
+                logger.info("Deleted {} since its source doesn't exist anymore", target);
+                deletedCount++;
+            }
+            entries.remove(key);
+            previousSources.remove(key);
+        }
+        return deletedCount;
+    }
+
+    /**
+     * Writes the manifest, replacing the previous one only once it has been written completely.
+     */
+    public void save() throws IOException
+    {
+        file.getParentFile().mkdirs();
+        File temporaryFile = new File(file.getParentFile(), FILE_NAME + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(VERSION_PREFIX + version);
+            writer.newLine();
+            for (Map.Entry<String, Entry> entry : new TreeMap<>(entries).entrySet()) {
+                writer.write(entry.getKey() + "\t" + entry.getValue().size + "\t" + entry.getValue().lastModified +
+                        "\t" + entry.getValue().hash);
+                writer.newLine();
+            }
+            //the sources of another version which couldn't be converted, which are never up to date
+            for (String key : new TreeSet<>(previousSources)) {
+                if (!entries.containsKey(key)) {
+                    writer.write(key + "\t-1\t0\t-");
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the number of files recorded
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    private String getKey(File source)
+    {
+        return directory.toPath().relativize(source.toPath()).toString().replace(File.separatorChar, '/');
+    }
+
+    static String hash(File source) throws IOException
+    {
+        try (InputStream in = new FileInputStream(source)) {
+            MessageDigest digest = newDigest();
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, count);
+            }
+            return toHex(digest);
+        }
+    }
+
+    /**
+     * @return the hash of the given content of a file, as it is recorded
+     */
+    public static String hash(byte[] bytes)
+    {
+        MessageDigest digest = newDigest();
+        digest.update(bytes);
+        return toHex(digest);
+    }
+
+    /**
+     * @return a digest to update with the content of a file while it is read, see {@link #toHex(MessageDigest)}
+     */
+    static MessageDigest newDigest()
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not supported", ex);
+        }
+    }
+
+    /**
+     * @return the hash of the content the given digest was updated with, as it is recorded
+     */
+    static String toHex(MessageDigest digest)
+    {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static class Entry
+    {
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        Entry(long size, long lastModified, String hash)
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what the converter does since the JVM started: the lines, graphemes and bytes converted, the Tamil chars
+ * left as they are because the mapping table doesn't have them, and the time taken to convert each file. The
+ * counters are updated once per text or file rather than once per char, and they are {@link LongAdder}s so that
+ * the threads converting at once don't contend on them, only reading them adds up the cells of all the threads.
+ *
+ * @since 1.0
+ */
+public class ConversionMetrics implements ConversionMetricsMBean
+{
+    /**
+     * The metrics updated by all the converters
+     */
+    public static final ConversionMetrics GLOBAL = new ConversionMetrics();
+    static final String DOMAIN = "org.tamilscriptconverter";
+    private static Logger logger = LoggerFactory.getLogger(ConversionMetrics.class);
+    private final LongAdder lineCount = new LongAdder();
+    private final LongAdder graphemeCount = new LongAdder();
+    private final LongAdder byteCount = new LongAdder();
+    private final LongAdder unmappedCharCount = new LongAdder();
+    private final LatencyHistogram fileConversionTime = new LatencyHistogram();
+
+    void addLines(long lines)
+    {
+        lineCount.add(lines);
+    }
+
+    void addGraphemes(long graphemes, long unmappedChars)
+    {
+        graphemeCount.add(graphemes);
+        if (unmappedChars > 0) {
+            unmappedCharCount.add(unmappedChars);
+        }
+    }
+
+    void addFile(long bytes, long nanos)
+    {
+        byteCount.add(bytes);
+        fileConversionTime.record(nanos);
+    }
+
+    @Override
+    public long getLineCount()
+    {
+        return lineCount.sum();
+    }
+
+    @Override
+    public long getGraphemeCount()
+    {
+        return graphemeCount.sum();
+    }
+
+    /**
+     * @return the size of the source files converted
+     */
+    @Override
+    public long getByteCount()
+    {
+        return byteCount.sum();
+    }
+
+    /**
+     * @return the number of Tamil chars which were left as they are because the mapping table doesn't have them
+     */
+    @Override
+    public long getUnmappedCharCount()
+    {
+        return unmappedCharCount.sum();
+    }
+
+    @Override
+    public long getFileCount()
+    {
+        return fileConversionTime.getCount();
+    }
+
+    @Override
+    public double getMeanFileConversionMillis()
+    {
+        return fileConversionTime.getMeanMillis();
+    }
+
+    @Override
+    public double getMedianFileConversionMillis()
+    {
+        return fileConversionTime.getPercentileMillis(50);
+    }
+
+    @Override
+    public double get99thPercentileFileConversionMillis()
+    {
+        return fileConversionTime.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getMaxFileConversionMillis()
+    {
+        return fileConversionTime.getMaxMillis();
+    }
+
+    @Override
+    public void reset()
+    {
+        lineCount.reset();
+        graphemeCount.reset();
+        byteCount.reset();
+        unmappedCharCount.reset();
+        fileConversionTime.reset();
+    }
+
+    /**
+     * Registers the given MBean in the platform MBean server with the given type, replacing the one registered
+     * before. A failure is logged since the metrics are not needed to convert.
+     */
+    static void registerMBean(Object mbean, String type)
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=" + type);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (JMException ex) {
+            logger.warn("Unable to register the MBean " + type, ex);
+        }
+    }
+
+    /**
+     * Registers the global metrics in the platform MBean server.
+     */
+    public static void registerGlobal()
+    {
+        registerMBean(GLOBAL, "ConversionMetrics");
+    }
+
+    @Override
+    public String toString()
+    {
+        return "lines=" + getLineCount() + ", graphemes=" + getGraphemeCount() + ", bytes=" + getByteCount() +
+                ", unmapped chars=" + getUnmappedCharCount() + ", files: " + fileConversionTime;
+    }
+}
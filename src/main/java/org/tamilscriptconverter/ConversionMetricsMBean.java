@@ -0,0 +1,29 @@
+package org.tamilscriptconverter;
+
+/**
+ * The JMX view of the {@link ConversionMetrics}.
+ *
+ * @since 1.0
+ */
+public interface ConversionMetricsMBean
+{
+    long getLineCount();
+
+    long getGraphemeCount();
+
+    long getByteCount();
+
+    long getUnmappedCharCount();
+
+    long getFileCount();
+
+    double getMeanFileConversionMillis();
+
+    double getMedianFileConversionMillis();
+
+    double get99thPercentileFileConversionMillis();
+
+    double getMaxFileConversionMillis();
+
+    void reset();
+}
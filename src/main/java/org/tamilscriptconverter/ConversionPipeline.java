@@ -0,0 +1,319 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converts many files in three stages connected by bounded queues: the files are read by virtual threads, converted
+ * by a fixed number of platform threads and written by virtual threads. Reading and writing a small file mostly
+ * waits for the disk, so many of them are read and written at once without holding a platform thread each, while
+ * the conversion uses as many threads as there are cores. A stage which is ahead of the next one blocks on the full
+ * queue, so only a bounded number of files are held in memory at once. The files larger than
+ * {@link #MAX_BUFFERED_FILE_SIZE} bytes by default are not held in memory at all: they are converted by the
+ * converting threads as they are read, like {@link TamilScriptConverter#convertFile(File, File, SongFormat)} converts
+ * them.
+ * <p>
+ * The files are read and written as UTF-8, like {@link TamilScriptConverter#convertFile(File, File)}, and converted
+ * the same way, without decoding them. A file which can't be converted is logged and counted as failed. The files
+ * converted are recorded in the manifest with the hash of the bytes converted, found while converting them.
+ *
+ * @since 1.0
+ */
+class ConversionPipeline
+{
+    static final int IO_THREAD_COUNT = 64;
+    static final long MAX_BUFFERED_FILE_SIZE = 8 << 20;
+    private static final int QUEUE_CAPACITY_PER_THREAD = 4;
+    private static final SourceFile END_OF_SOURCE_FILES = new SourceFile(null, null, 0, 0, 0);
+    private static final ConvertedFile END_OF_CONVERTED_FILES = new ConvertedFile(END_OF_SOURCE_FILES, null, 0, null);
+    private static Logger logger = LoggerFactory.getLogger(ConversionPipeline.class);
+    private final int threadCount;
+    private final SongFormat songFormat;
+    private final long maxBufferedFileSize;
+
+    /**
+     * @param threadCount the number of platform threads converting the files
+     */
+    ConversionPipeline(int threadCount, SongFormat songFormat)
+    {
+        this(threadCount, songFormat, MAX_BUFFERED_FILE_SIZE);
+    }
+
+    /**
+     * @param maxBufferedFileSize the size of the largest file held in memory, the larger ones being converted as
+     *                            they are read
+     */
+    ConversionPipeline(int threadCount, SongFormat songFormat, long maxBufferedFileSize)
+    {
+        this.threadCount = threadCount;
+        this.songFormat = songFormat;
+        this.maxBufferedFileSize = maxBufferedFileSize;
+    }
+
+    /**
+     * Converts the given files, adding them to the given summary.
+     *
+     * @param manifest the manifest of the files already converted, which are skipped, or null to convert all the
+     *                 files
+     */
+    void convert(final List<File> files, final ConversionManifest manifest, final ConversionSummary summary)
+            throws InterruptedException
+    {
+        final BlockingQueue<SourceFile> sourceFiles = new ArrayBlockingQueue<>(threadCount * QUEUE_CAPACITY_PER_THREAD);
+        final BlockingQueue<ConvertedFile> convertedFiles =
+                new ArrayBlockingQueue<>(threadCount * QUEUE_CAPACITY_PER_THREAD);
+        final AtomicInteger nextFile = new AtomicInteger();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < Math.min(IO_THREAD_COUNT, files.size()); i++) {
+            readers.add(Thread.ofVirtual().name("reader-", i).start(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    int index;
+                    while ((index = nextFile.getAndIncrement()) < files.size()) {
+                        read(files.get(index), manifest, sourceFiles, summary);
+                    }
+                }
+            }));
+        }
+        List<Thread> converters = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            converters.add(Thread.ofPlatform().name("converter-", i).start(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    convert(sourceFiles, convertedFiles, manifest != null, summary);
+                }
+            }));
+        }
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < IO_THREAD_COUNT; i++) {
+            writers.add(Thread.ofVirtual().name("writer-", i).start(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    write(convertedFiles, manifest, summary);
+                }
+            }));
+        }
+        try {
+            join(readers);
+            for (int i = 0; i < converters.size(); i++) {
+                sourceFiles.put(END_OF_SOURCE_FILES);
+            }
+            join(converters);
+            for (int i = 0; i < writers.size(); i++) {
+                convertedFiles.put(END_OF_CONVERTED_FILES);
+            }
+            join(writers);
+        } finally {
+            interrupt(readers);
+            interrupt(converters);
+            interrupt(writers);
+        }
+    }
+
+    private void read(File file, ConversionManifest manifest, BlockingQueue<SourceFile> sourceFiles,
+                      ConversionSummary summary)
+    {
+        long startTime = System.nanoTime();
+        long size;
+        long lastModified;
+        byte[] bytes;
+        try {
+            if (manifest != null && manifest.isUpToDate(file)) {
+                summary.addSkippedFile();
+                return;
+            }
+            //found before reading the file, so that it is converted again if it is modified while it is read
+            lastModified = file.lastModified();
+            size = file.length();
+            bytes = size > maxBufferedFileSize ? null : Files.readAllBytes(file.toPath());
+        } catch (IOException | RuntimeException | OutOfMemoryError ex) {
+            logger.error("Error occurred while reading " + file, ex);
+            summary.addFailedFile();
+            return;
+        }
+        try {
+            sourceFiles.put(new SourceFile(file, bytes, bytes != null ? bytes.length : size, lastModified,
+                    startTime));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param hashed whether the hash of the bytes converted is needed to record them in the manifest
+     */
+    private void convert(BlockingQueue<SourceFile> sourceFiles, BlockingQueue<ConvertedFile> convertedFiles,
+                         boolean hashed, ConversionSummary summary)
+    {
+        Utf8LineConverter converter = new Utf8LineConverter(songFormat);
+        try {
+            SourceFile sourceFile;
+            while ((sourceFile = sourceFiles.take()) != END_OF_SOURCE_FILES) {
+                ConvertedFile convertedFile;
+                try {
+                    convertedFile = sourceFile.bytes == null ? convertLargeFile(converter, sourceFile, hashed) :
+                            convert(converter, sourceFile, hashed);
+                } catch (IOException | RuntimeException | OutOfMemoryError ex) {
+                    logger.error("Error occurred while converting " + sourceFile.file, ex);
+                    summary.addFailedFile();
+                    continue;
+                }
+                convertedFiles.put(convertedFile);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ConvertedFile convert(Utf8LineConverter converter, SourceFile sourceFile, boolean hashed)
+            throws IOException
+    {
+        //the romanised line is usually shorter than the Tamil one, whose UTF-8 bytes are copied with the tags
+        int initialSize = (int) Math.min(3L * sourceFile.bytes.length + 16, 3 * MAX_BUFFERED_FILE_SIZE);
+        ByteArrayOutputStream convertedBytes = new ByteArrayOutputStream(initialSize);
+        long lineCount = converter.convert(sourceFile.bytes, 0, sourceFile.bytes.length, convertedBytes);
+        return new ConvertedFile(sourceFile, convertedBytes.toByteArray(), lineCount,
+                hashed ? ConversionManifest.hash(sourceFile.bytes) : null);
+    }
+
+    /**
+     * Converts a file too large to be held in memory as it is read, writing its converted file straight away.
+     *
+     * @return the converted file, without its bytes since it has already been written
+     */
+    private static ConvertedFile convertLargeFile(Utf8LineConverter converter, SourceFile sourceFile,
+                                                  boolean hashed) throws IOException
+    {
+        File target = TamilScriptConverter.getTargetFile(sourceFile.file);
+        if (!target.getParentFile().exists()) {
+            target.getParentFile().mkdirs();
+        }
+        MessageDigest digest = hashed ? ConversionManifest.newDigest() : null;
+        try (InputStream in = hashed ? new DigestInputStream(new FileInputStream(sourceFile.file), digest) :
+                new FileInputStream(sourceFile.file);
+             OutputStream out = new FileOutputStream(target)) {
+            long lineCount = converter.convert(in, out);
+            return new ConvertedFile(sourceFile, null, lineCount, hashed ? ConversionManifest.toHex(digest) : null);
+        }
+    }
+
+    private void write(BlockingQueue<ConvertedFile> convertedFiles, ConversionManifest manifest,
+                       ConversionSummary summary)
+    {
+        try {
+            ConvertedFile convertedFile;
+            while ((convertedFile = convertedFiles.take()) != END_OF_CONVERTED_FILES) {
+                File source = convertedFile.file;
+                try {
+                    //the converted files which are too large to be held in memory have already been written
+                    if (convertedFile.bytes != null) {
+                        File target = TamilScriptConverter.getTargetFile(source);
+                        if (!target.getParentFile().exists()) {
+                            target.getParentFile().mkdirs();
+                        }
+                        Files.write(target.toPath(), convertedFile.bytes);
+                    }
+                    if (manifest != null) {
+                        manifest.add(source, convertedFile.size, convertedFile.lastModified,
+                                convertedFile.hash);
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    logger.error("Error occurred while converting " + source, ex);
+                    summary.addFailedFile();
+                    continue;
+                }
+                summary.addFile(convertedFile.lineCount, convertedFile.size);
+                ConversionMetrics.GLOBAL.addLines(convertedFile.lineCount);
+                ConversionMetrics.GLOBAL.addFile(convertedFile.size, System.nanoTime() - convertedFile.startTime);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void join(List<Thread> threads) throws InterruptedException
+    {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void interrupt(List<Thread> threads)
+    {
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * A file read, without its bytes when it is too large to be held in memory.
+     */
+    private static class SourceFile
+    {
+        private final File file;
+        private final byte[] bytes;
+        private final long size;
+        private final long lastModified;
+        private final long startTime;
+
+        SourceFile(File file, byte[] bytes, long size, long lastModified, long startTime)
+        {
+            this.file = file;
+            this.bytes = bytes;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.startTime = startTime;
+        }
+    }
+
+    /**
+     * A file converted, without its bytes when it has already been written.
+     */
+    private static class ConvertedFile
+    {
+        private final File file;
+        private final byte[] bytes;
+        private final long lineCount;
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+        private final long startTime;
+
+        /**
+         * @param hash the hash of the bytes converted, or null if the files converted are not recorded
+         */
+        ConvertedFile(SourceFile sourceFile, byte[] bytes, long lineCount, String hash)
+        {
+            //the bytes of the source file are not kept, only what is recorded about it
+            this.file = sourceFile.file;
+            this.bytes = bytes;
+            this.lineCount = lineCount;
+            this.size = sourceFile.size;
+            this.lastModified = sourceFile.lastModified;
+            this.hash = hash;
+            this.startTime = sourceFile.startTime;
+        }
+    }
+}
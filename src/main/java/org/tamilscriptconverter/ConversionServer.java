@@ -0,0 +1,242 @@
+package org.tamilscriptconverter;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long running HTTP server converting the text posted to it, so that converting many small batches doesn't pay
+ * for starting a JVM each time. The text is read and written as UTF-8.
+ * <ul>
+ * <li>POST /convert converts the whole body, like {@link Transliterator#convert(java.io.Reader, Writer)}</li>
+ * <li>POST /batch converts each line of the body on its own and writes one converted line per line</li>
+ * <li>POST /song writes each line of the body followed by its converted text, the way a converted file is
+ * written, so the body can hold any number of songs</li>
+ * <li>GET /health answers OK</li>
+ * </ul>
+ * The requests are handled by a fixed number of threads with a bounded queue. When the queue is full the request
+ * is answered straight away with 429 Too Many Requests, so that the clients back off instead of piling up. A client
+ * which doesn't send its whole request within the seconds of the system property {@value #REQUEST_TIMEOUT_PROPERTY}
+ * is disconnected, so that a few slow or idle clients can't hold all the threads. The JDK doesn't time out the
+ * requests by default and only reads this property when the first HTTP server of the JVM is created, so it must be
+ * set before then and applies to all the servers of the JVM. The command line sets it to
+ * {@link #DEFAULT_REQUEST_TIMEOUT_SECONDS} seconds unless it is given. The idle connections are closed after the
+ * {@code sun.net.httpserver.idleInterval} seconds of the JDK, 30 by default.
+ *
+ * @since 1.0
+ */
+public class ConversionServer
+{
+    static final int TOO_MANY_REQUESTS = 429;
+    static final String REQUEST_TIMEOUT_PROPERTY = "sun.net.httpserver.maxReqTime";
+    static final long DEFAULT_REQUEST_TIMEOUT_SECONDS = 30;
+    private static final String TEXT_PLAIN = "text/plain; charset=UTF-8";
+    private static Logger logger = LoggerFactory.getLogger(ConversionServer.class);
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final SongFormat songFormat;
+
+    /**
+     * @param address       the address to listen to, the port 0 picks a free port
+     * @param threadCount   the number of requests handled at once
+     * @param queueCapacity the number of requests waiting for a thread before the next ones are rejected
+     */
+    public ConversionServer(InetSocketAddress address, int threadCount, int queueCapacity, SongFormat songFormat)
+            throws IOException
+    {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count should be at least 1 but was " + threadCount);
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity can't be negative but was " + queueCapacity);
+        }
+        BlockingQueue<Runnable> queue = queueCapacity == 0 ? new SynchronousQueue<Runnable>()
+                : new ArrayBlockingQueue<Runnable>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS, queue);
+        this.songFormat = songFormat;
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/convert", new BoundedHandler(new ConvertHandler()));
+        server.createContext("/batch", new BoundedHandler(new BatchHandler()));
+        server.createContext("/song", new BoundedHandler(new SongHandler()));
+        server.createContext("/health", new HealthHandler());
+    }
+
+    public void start()
+    {
+        server.start();
+        logger.info("Listening to {} using {} threads", server.getAddress(), executor.getMaximumPoolSize());
+    }
+
+    /**
+     * Stops accepting requests, waits for the given number of seconds for the current ones to finish and stops
+     * the threads.
+     */
+    public void stop(int delay)
+    {
+        server.stop(delay);
+        executor.shutdownNow();
+        logger.info("Stopped listening to {}", server.getAddress());
+    }
+
+    public InetSocketAddress getAddress()
+    {
+        return server.getAddress();
+    }
+
+    /**
+     * @return the number of requests being converted
+     */
+    int getActiveRequestCount()
+    {
+        return executor.getActiveCount();
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", TEXT_PLAIN);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static BufferedReader newReader(InputStream in)
+    {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), Transliterator.STREAM_BUFFER_SIZE);
+    }
+
+    private static Writer newWriter(HttpExchange exchange) throws IOException
+    {
+        exchange.getResponseHeaders().set("Content-Type", TEXT_PLAIN);
+        //the converted text is streamed, so its length isn't known
+        exchange.sendResponseHeaders(200, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                Transliterator.STREAM_BUFFER_SIZE);
+    }
+
+    /**
+     * Hands the requests over to the executor, answering 429 from the thread accepting the requests when it is
+     * saturated.
+     */
+    private class BoundedHandler implements HttpHandler
+    {
+        private final HttpHandler handler;
+
+        BoundedHandler(HttpHandler handler)
+        {
+            this.handler = handler;
+        }
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException
+        {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendText(exchange, 405, "Only POST is allowed\n");
+                return;
+            }
+            try {
+                executor.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try {
+                            handler.handle(exchange);
+                        } catch (IOException ex) {
+                            //the client went away or was disconnected for being too slow
+                            logger.warn("Unable to answer the request to {} from {}: {}", exchange.getRequestURI(),
+                                    exchange.getRemoteAddress(), ex.toString());
+                        } catch (RuntimeException ex) {
+                            logger.error("Error occurred while converting the request to " +
+                                    exchange.getRequestURI(), ex);
+                        } finally {
+                            exchange.close();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                logger.warn("Rejected the request to {}, all the threads are busy", exchange.getRequestURI());
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendText(exchange, TOO_MANY_REQUESTS, "Too many requests, try again later\n");
+            }
+        }
+    }
+
+    private class ConvertHandler implements HttpHandler
+    {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            Writer writer = newWriter(exchange);
+            songFormat.getTransliterator().convert(newReader(exchange.getRequestBody()), writer);
+            writer.close();
+        }
+    }
+
+    private class BatchHandler implements HttpHandler
+    {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            BufferedReader reader = newReader(exchange.getRequestBody());
+            Writer writer = newWriter(exchange);
+            StringBuilder convertedLine = new StringBuilder();
+            long lineCount = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                songFormat.getTransliterator().convert(line, convertedLine).append('\n');
+                writer.append(convertedLine);
+                convertedLine.setLength(0);
+                lineCount++;
+            }
+            writer.close();
+            ConversionMetrics.GLOBAL.addLines(lineCount);
+        }
+    }
+
+    private class SongHandler implements HttpHandler
+    {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            BufferedReader reader = newReader(exchange.getRequestBody());
+            Writer writer = newWriter(exchange);
+            long lineCount = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                songFormat.writeLine(line, writer);
+                lineCount++;
+            }
+            writer.close();
+            ConversionMetrics.GLOBAL.addLines(lineCount);
+        }
+    }
+
+    private static class HealthHandler implements HttpHandler
+    {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            sendText(exchange, 200, "OK\n");
+        }
+    }
+}
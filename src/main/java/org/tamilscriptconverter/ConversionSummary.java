@@ -0,0 +1,108 @@
+package org.tamilscriptconverter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the files, lines and bytes converted by a batch, can be updated by several threads at once.
+ *
+ * @since 1.0
+ */
+public class ConversionSummary
+{
+    private final AtomicLong fileCount = new AtomicLong();
+    private final AtomicLong failedFileCount = new AtomicLong();
+    private final AtomicLong skippedFileCount = new AtomicLong();
+    private final AtomicLong deletedFileCount = new AtomicLong();
+    private final AtomicLong lineCount = new AtomicLong();
+    private final AtomicLong byteCount = new AtomicLong();
+    private final long startTime = System.nanoTime();
+    private volatile long elapsedTime = -1;
+
+    void addFile(long lines, long bytes)
+    {
+        fileCount.incrementAndGet();
+        lineCount.addAndGet(lines);
+        byteCount.addAndGet(bytes);
+    }
+
+    void addFailedFile()
+    {
+        failedFileCount.incrementAndGet();
+    }
+
+    void addSkippedFile()
+    {
+        skippedFileCount.incrementAndGet();
+    }
+
+    void addDeletedFiles(long count)
+    {
+        deletedFileCount.addAndGet(count);
+    }
+
+    void finish()
+    {
+        elapsedTime = System.nanoTime() - startTime;
+    }
+
+    /**
+     * @return the number of files converted successfully
+     */
+    public long getFileCount()
+    {
+        return fileCount.get();
+    }
+
+    public long getFailedFileCount()
+    {
+        return failedFileCount.get();
+    }
+
+    /**
+     * @return the number of files which were not converted because they haven't changed since the last conversion
+     */
+    public long getSkippedFileCount()
+    {
+        return skippedFileCount.get();
+    }
+
+    /**
+     * @return the number of converted files deleted because their source doesn't exist anymore
+     */
+    public long getDeletedFileCount()
+    {
+        return deletedFileCount.get();
+    }
+
+    public long getLineCount()
+    {
+        return lineCount.get();
+    }
+
+    /**
+     * @return the size of the source files converted successfully
+     */
+    public long getByteCount()
+    {
+        return byteCount.get();
+    }
+
+    /**
+     * @return the time taken by the batch, or the time elapsed so far if the batch hasn't finished yet
+     */
+    public long getElapsedMillis()
+    {
+        long elapsed = elapsedTime >= 0 ? elapsedTime : System.nanoTime() - startTime;
+        return TimeUnit.NANOSECONDS.toMillis(elapsed);
+    }
+
+    @Override
+    public String toString()
+    {
+        String incremental = getSkippedFileCount() > 0 || getDeletedFileCount() > 0 ? ", " + getSkippedFileCount() +
+                " up to date, " + getDeletedFileCount() + " deleted" : "";
+        return "Converted " + getFileCount() + " files (" + getFailedFileCount() + " failed" + incremental + "), " +
+                getLineCount() + " lines, " + getByteCount() + " bytes in " + getElapsedMillis() + " ms";
+    }
+}
@@ -0,0 +1,135 @@
+package org.tamilscriptconverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records how a text was split into graphemes and how each grapheme was converted, to find out why a text isn't
+ * converted as expected. Built on demand by {@link Transliterator#trace(String)}, the usual conversion doesn't
+ * record anything.
+ *
+ * @since 1.0
+ */
+public final class ConversionTrace
+{
+    private final String text;
+    private final List<Step> steps = new ArrayList<>();
+    private String trimmedText = "";
+    private String convertedText;
+
+    ConversionTrace(String text)
+    {
+        this.text = text;
+    }
+
+    void trim(int count)
+    {
+        trimmedText = text.substring(0, count);
+    }
+
+    void add(String grapheme, String romanisation, char previousChar, boolean previousBlank)
+    {
+        steps.add(new Step(grapheme, romanisation, previousChar, previousBlank));
+    }
+
+    void finish(String convertedText)
+    {
+        this.convertedText = convertedText;
+    }
+
+    public String getText()
+    {
+        return text;
+    }
+
+    /**
+     * @return the chars removed from the start of the text before converting it
+     */
+    public String getTrimmedText()
+    {
+        return trimmedText;
+    }
+
+    public List<Step> getSteps()
+    {
+        return Collections.unmodifiableList(steps);
+    }
+
+    public String getConvertedText()
+    {
+        return convertedText;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append('"').append(text).append("\" -> \"").append(convertedText).append('"');
+        if (!trimmedText.isEmpty()) {
+            builder.append(System.lineSeparator()).append("  trimmed \"").append(trimmedText).append('"');
+        }
+        for (Step step : steps) {
+            builder.append(System.lineSeparator()).append("  ").append(step);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The conversion of a grapheme
+     */
+    public static final class Step
+    {
+        private final String grapheme;
+        private final String romanisation;
+        private final char previousChar;
+        private final boolean previousBlank;
+
+        Step(String grapheme, String romanisation, char previousChar, boolean previousBlank)
+        {
+            this.grapheme = grapheme;
+            this.romanisation = romanisation;
+            this.previousChar = previousChar;
+            this.previousBlank = previousBlank;
+        }
+
+        public String getGrapheme()
+        {
+            return grapheme;
+        }
+
+        /**
+         * @return the romanisation of the grapheme, or null if the mapping table doesn't have it and the grapheme
+         * was left as it is
+         */
+        public String getRomanisation()
+        {
+            return romanisation;
+        }
+
+        /**
+         * @return the first char of the previous grapheme, which some romanisations depend on
+         */
+        public char getPreviousChar()
+        {
+            return previousChar;
+        }
+
+        public boolean isPreviousBlank()
+        {
+            return previousBlank;
+        }
+
+        public boolean isMapped()
+        {
+            return romanisation != null;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "\"" + grapheme + "\" -> " + (romanisation != null ? "\"" + romanisation + "\"" : "unmapped") +
+                    " (after " + (previousBlank ? "blank" : "\"" + previousChar + "\"") + ")";
+        }
+    }
+}
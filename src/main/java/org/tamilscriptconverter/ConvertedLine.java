@@ -0,0 +1,71 @@
+package org.tamilscriptconverter;
+
+/**
+ * A line of a song with its romanised text, as given by {@link SongFormat#convertLine(long, String)}.
+ *
+ * @since 1.0
+ */
+public final class ConvertedLine
+{
+    private final long lineNumber;
+    private final String tamilText;
+    private final SectionHeader sectionHeader;
+    private final String romanisedText;
+
+    public ConvertedLine(long lineNumber, String tamilText, SectionHeader sectionHeader, String romanisedText)
+    {
+        this.lineNumber = lineNumber;
+        this.tamilText = tamilText;
+        this.sectionHeader = sectionHeader;
+        this.romanisedText = romanisedText;
+    }
+
+    /**
+     * @return the number of the line in the song, starting at 1
+     */
+    public long getLineNumber()
+    {
+        return lineNumber;
+    }
+
+    /**
+     * @return the line as it was given
+     */
+    public String getTamilText()
+    {
+        return tamilText;
+    }
+
+    /**
+     * @return the header of the section started by the line, or null if it doesn't start one
+     */
+    public SectionHeader getSectionHeader()
+    {
+        return sectionHeader;
+    }
+
+    /**
+     * @return the number of the verse started by the line, or null if it doesn't start a verse
+     */
+    public String getVerseNumber()
+    {
+        return sectionHeader != null && SectionHeader.VERSE.equals(sectionHeader.getType()) ?
+                sectionHeader.getNumber() : null;
+    }
+
+    /**
+     * @return the romanised text of the line without its section header, trimmed and capitalised, or an empty
+     * string if the line is blank
+     */
+    public String getRomanisedText()
+    {
+        return romanisedText;
+    }
+
+    @Override
+    public String toString()
+    {
+        return lineNumber + ": " + (sectionHeader != null ? sectionHeader.getTag() + " " : "") + tamilText + " -> " +
+                romanisedText;
+    }
+}
@@ -0,0 +1,127 @@
+package org.tamilscriptconverter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the records of a CSV or TSV file one at a time. A CSV field can be quoted with double quotes to
+ * hold delimiters, line breaks or doubled double quotes, as in RFC 4180. TSV fields are never quoted.
+ *
+ * @since 1.0
+ */
+class DelimitedRecords
+{
+    private final Reader reader;
+    private final char delimiter;
+    private final boolean quoted;
+    private int nextChar = -2;
+
+    /**
+     * @param reader should be buffered, since it is read one char at a time
+     */
+    DelimitedRecords(Reader reader, char delimiter, boolean quoted)
+    {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.quoted = quoted;
+    }
+
+    /**
+     * @return the fields of the next record, or null at the end of the input
+     */
+    List<String> next() throws IOException
+    {
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c < 0) {
+                    throw new IOException("Quoted field not closed at the end of the input");
+                } else if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c < 0 || c == '\n') {
+                break;
+            } else if (c == '\r') {
+                c = read();
+                if (c != '\n') {
+                    unread(c);
+                }
+                break;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && quoted && field.length() == 0) {
+                inQuotes = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException
+    {
+        if (nextChar != -2) {
+            int c = nextChar;
+            nextChar = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c)
+    {
+        nextChar = c;
+    }
+
+    /**
+     * Appends the given fields as a record, followed by a line break.
+     */
+    static void write(List<String> fields, char delimiter, boolean quoted, StringBuilder out)
+    {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            String field = fields.get(i);
+            if (quoted && needsQuotes(field, delimiter)) {
+                out.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else if (quoted) {
+                out.append(field);
+            } else {
+                //a TSV field can't hold a delimiter or a line break
+                out.append(field.replace(delimiter, ' ').replace('\r', ' ').replace('\n', ' '));
+            }
+        }
+        out.append("\r\n");
+    }
+
+    private static boolean needsQuotes(String field, char delimiter)
+    {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == delimiter || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
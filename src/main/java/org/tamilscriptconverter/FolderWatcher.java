@@ -0,0 +1,285 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches a directory and its sub directories and converts the files created or modified in them as soon as they
+ * are saved, so that the files dropped in a shared folder are converted one at a time by a converter which stays
+ * warm, instead of converting the whole directory again.
+ * <p>
+ * The changes are read by a single thread, which waits until no change was made to a file for the debounce delay
+ * before converting it, so that a file saved in several writes, or several times in a row, is converted once. The
+ * files are converted by a fixed number of threads with a bounded queue, the watching thread converting a file
+ * itself when the queue is full. The directories in which the converted files are written aren't watched, so
+ * writing the converted files doesn't trigger other conversions.
+ * <p>
+ * The files which were created or modified since they were last converted are converted when the watcher starts,
+ * and again whenever some changes are missed because they were made too quickly.
+ *
+ * @since 1.0
+ */
+public class FolderWatcher implements Closeable
+{
+    static final long DEBOUNCE_DELAY_MILLIS = 100;
+    private static final int QUEUE_CAPACITY_PER_THREAD = 16;
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+    private static Logger logger = LoggerFactory.getLogger(FolderWatcher.class);
+    private final File directory;
+    private final int threadCount;
+    private final WatchService watchService;
+    //only used by the watching thread
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Map<Path, Long> pendingFiles = new HashMap<>();
+    private final Set<Path> convertingFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicLong convertedFileCount = new AtomicLong();
+    private long debounceDelayNanos = TimeUnit.MILLISECONDS.toNanos(DEBOUNCE_DELAY_MILLIS);
+    private SongFormat songFormat = SongFormat.DEFAULT;
+    private ThreadPoolExecutor executor;
+    private Thread watchingThread;
+
+    public FolderWatcher(File directory, int threadCount) throws IOException
+    {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count should be at least 1 but was " + threadCount);
+        }
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException(directory + " isn't a directory");
+        }
+        this.directory = directory;
+        this.threadCount = threadCount;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    public void setSongFormat(SongFormat songFormat)
+    {
+        this.songFormat = songFormat;
+    }
+
+    /**
+     * Sets how long a file must be left unchanged before it is converted.
+     */
+    void setDebounceDelay(long delay, TimeUnit unit)
+    {
+        this.debounceDelayNanos = unit.toNanos(delay);
+    }
+
+    /**
+     * Starts watching the directory in a new thread.
+     */
+    public void start()
+    {
+        executor = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(threadCount * QUEUE_CAPACITY_PER_THREAD),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        watchingThread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                watch();
+            }
+        }, "folder-watcher");
+        watchingThread.start();
+        logger.info("Watching {} using {} threads", directory, threadCount);
+    }
+
+    /**
+     * Stops watching the directory and waits for the files being converted.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        watchService.close();
+        try {
+            if (watchingThread != null) {
+                watchingThread.join();
+            }
+            if (executor != null) {
+                executor.shutdown();
+                executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Stopped watching {}", directory);
+    }
+
+    /**
+     * @return the number of files converted since the watcher started
+     */
+    long getConvertedFileCount()
+    {
+        return convertedFileCount.get();
+    }
+
+    private void watch()
+    {
+        try {
+            watchTree(directory.toPath());
+            while (true) {
+                WatchKey key = pendingFiles.isEmpty() ? watchService.take()
+                        : watchService.poll(getNextDelay(), TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    readChanges(key);
+                }
+                convertUnchangedFiles();
+            }
+        } catch (ClosedWatchServiceException ex) {
+            //the watcher is closed
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readChanges(WatchKey key)
+    {
+        Path watchedDirectory = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                logger.warn("Missed some changes in {}, looking for the files to convert", directory);
+                watchTree(directory.toPath());
+            } else if (watchedDirectory != null) {
+                Path path = watchedDirectory.resolve((Path) event.context());
+                if (Files.isDirectory(path)) {
+                    //a directory is modified when its files are, and its files are watched on their own
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                        watchTree(path);
+                    }
+                } else {
+                    pendingFiles.put(path, System.nanoTime() + debounceDelayNanos);
+                }
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    /**
+     * Watches the given directory and its sub directories, apart from the converted ones, and converts the files
+     * which weren't converted since they were last modified once they are left unchanged for the debounce delay.
+     */
+    private void watchTree(Path root)
+    {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attributes)
+                        throws IOException
+                {
+                    if (BatchConverter.TARGET_DIRECTORY_NAME.equals(path.getFileName().toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    watchedDirectories.put(path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY), path);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attributes)
+                {
+                    File target = TamilScriptConverter.getTargetFile(path.toFile());
+                    //the file may still be being written, like the ones whose changes are read
+                    if (attributes.isRegularFile() &&
+                            target.lastModified() < attributes.lastModifiedTime().toMillis()) {
+                        pendingFiles.put(path, System.nanoTime() + debounceDelayNanos);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            logger.error("Unable to watch " + root, ex);
+        }
+    }
+
+    /**
+     * @return the time until the next pending file is left unchanged for long enough
+     */
+    private long getNextDelay()
+    {
+        long now = System.nanoTime();
+        long delay = debounceDelayNanos;
+        for (long time : pendingFiles.values()) {
+            delay = Math.min(delay, time - now);
+        }
+        return Math.max(delay, 0);
+    }
+
+    /**
+     * Converts the pending files which were left unchanged for the debounce delay. A file which is still being
+     * converted is converted again once it is done.
+     */
+    private void convertUnchangedFiles()
+    {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Long>> iterator = pendingFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> pendingFile = iterator.next();
+            if (pendingFile.getValue() - now > 0) {
+                continue;
+            }
+            final Path file = pendingFile.getKey();
+            if (!convertingFiles.add(file)) {
+                pendingFile.setValue(now + debounceDelayNanos);
+                continue;
+            }
+            iterator.remove();
+            executor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try {
+                        convert(file.toFile());
+                    } finally {
+                        convertingFiles.remove(file);
+                    }
+                }
+            });
+        }
+    }
+
+    private void convert(File source)
+    {
+        if (!source.isFile()) {
+            //removed or renamed since it was changed
+            return;
+        }
+        long startTime = System.nanoTime();
+        try {
+            long lineCount = TamilScriptConverter.convertFile(source, TamilScriptConverter.getTargetFile(source),
+                    songFormat);
+            convertedFileCount.incrementAndGet();
+            logger.info("Converted {} lines of {} in {} ms", lineCount, source,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Error occurred while converting " + source, ex);
+        }
+    }
+}
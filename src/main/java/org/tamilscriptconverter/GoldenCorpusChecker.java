@@ -0,0 +1,246 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Converts the golden corpora of a directory, pairs of files named like "foo-source.txt" and "foo-expected.txt",
+ * and compares the converted files with the expected ones, so that a change to the conversion which isn't meant to
+ * change its result is caught. Each line differing from the expected one is reported with the first grapheme which
+ * is converted differently, found by tracing the conversion of its source line.
+ * <p>
+ * The corpora are converted in memory by several threads, the time taken to convert each of them being recorded so
+ * that the throughput can be compared between builds using {@link #appendResults(List, File)}.
+ *
+ * @since 1.0
+ */
+public class GoldenCorpusChecker
+{
+    static final String SOURCE_SUFFIX = "-source.txt";
+    static final String EXPECTED_SUFFIX = "-expected.txt";
+    private static final String RESULTS_HEADER = "time\tcorpus\tlines\tbytes\tmillis\tlines/s\tMB/s\tmismatches\tversion";
+    private static Logger logger = LoggerFactory.getLogger(GoldenCorpusChecker.class);
+    private final int threadCount;
+    private SongFormat songFormat = SongFormat.DEFAULT;
+
+    public GoldenCorpusChecker(int threadCount)
+    {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count should be at least 1 but was " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    public void setSongFormat(SongFormat songFormat)
+    {
+        this.songFormat = songFormat;
+    }
+
+    /**
+     * Checks the golden corpora of the given directory, ordered by name.
+     */
+    public List<GoldenCorpusResult> check(File directory) throws IOException
+    {
+        File[] sources = directory.listFiles();
+        if (sources == null) {
+            throw new IOException("Unable to list the files in " + directory);
+        }
+        Arrays.sort(sources);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<GoldenCorpusResult>> results = new ArrayList<>();
+            for (final File source : sources) {
+                String sourceName = source.getName();
+                if (!sourceName.endsWith(SOURCE_SUFFIX)) {
+                    continue;
+                }
+                final String name = sourceName.substring(0, sourceName.length() - SOURCE_SUFFIX.length());
+                final File expected = new File(directory, name + EXPECTED_SUFFIX);
+                if (!expected.isFile()) {
+                    logger.warn("Skipping {}, {} doesn't exist", source, expected.getName());
+                    continue;
+                }
+                results.add(executor.submit(new Callable<GoldenCorpusResult>()
+                {
+                    @Override
+                    public GoldenCorpusResult call() throws IOException
+                    {
+                        return check(name, source, expected);
+                    }
+                }));
+            }
+            List<GoldenCorpusResult> corpusResults = new ArrayList<>(results.size());
+            for (Future<GoldenCorpusResult> result : results) {
+                corpusResults.add(result.get());
+            }
+            return corpusResults;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IllegalStateException("Unable to check the golden corpora of " + directory, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while checking the golden corpora of " + directory, ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Converts the given UTF-8 source file and compares the result with the given expected file.
+     */
+    GoldenCorpusResult check(String name, File source, File expected) throws IOException
+    {
+        List<String> sourceLines = readLines(source);
+        long startTime = System.nanoTime();
+        StringWriter writer = new StringWriter();
+        for (String line : sourceLines) {
+            songFormat.writeLine(line, writer);
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        //the lines are converted again one at a time to find the source line of each converted line
+        List<String> actualLines = new ArrayList<>();
+        List<String> convertedSourceLines = new ArrayList<>();
+        for (String line : sourceLines) {
+            StringWriter lineWriter = new StringWriter();
+            songFormat.writeLine(line, lineWriter);
+            String[] writtenLines = lineWriter.toString().split("\r\n", -1);
+            for (int i = 0; i < writtenLines.length - 1; i++) {
+                actualLines.add(writtenLines[i]);
+                boolean converted = !TamilScriptConverter.isBlank(line) && i == writtenLines.length - 2;
+                convertedSourceLines.add(converted ? line : null);
+            }
+        }
+        List<String> expectedLines = readLines(expected);
+        List<GoldenCorpusResult.Mismatch> mismatches = new ArrayList<>();
+        for (int i = 0; i < Math.max(expectedLines.size(), actualLines.size()); i++) {
+            String expectedLine = i < expectedLines.size() ? expectedLines.get(i) : null;
+            String actualLine = i < actualLines.size() ? actualLines.get(i) : null;
+            if (expectedLine == null || !expectedLine.equals(actualLine)) {
+                mismatches.add(compare(i + 1, expectedLine, actualLine,
+                        i < actualLines.size() ? convertedSourceLines.get(i) : null));
+            }
+        }
+        GoldenCorpusResult result = new GoldenCorpusResult(name, sourceLines.size(), source.length(), elapsedNanos,
+                mismatches);
+        if (result.isMatching()) {
+            logger.info("{}", result);
+        } else {
+            logger.warn("{}, first mismatch at {}", result, mismatches.get(0));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first grapheme of the given source line whose romanisation differs from the expected line.
+     *
+     * @param sourceLine the source line of the converted line, or null if it isn't a converted line
+     */
+    private GoldenCorpusResult.Mismatch compare(int lineNumber, String expectedLine, String actualLine,
+                                                String sourceLine)
+    {
+        if (sourceLine == null || expectedLine == null || actualLine == null) {
+            return new GoldenCorpusResult.Mismatch(lineNumber, expectedLine, actualLine, null, null, null);
+        }
+        ConversionTrace trace = songFormat.getTransliterator().trace(sourceLine);
+        String convertedText = trace.getConvertedText();
+        //the converted line is the converted text without its section header, trimmed and capitalised
+        String textAfterHeader = SectionHeaderParser.removeConvertedHeader(sourceLine,
+                songFormat.getSectionHeaderParser().parse(sourceLine), convertedText, songFormat.getTransliterator());
+        int start = convertedText.endsWith(textAfterHeader) ? convertedText.length() - textAfterHeader.length() : 0;
+        while (start < convertedText.length() && convertedText.charAt(start) <= ' ') {
+            start++;
+        }
+        int length = 0;
+        while (length < expectedLine.length() && start + length < convertedText.length() &&
+                isSameChar(expectedLine.charAt(length), convertedText.charAt(start + length), length == 0)) {
+            length++;
+        }
+        int offset = start + length;
+        int stepStart = 0;
+        int stepEnd = 0;
+        ConversionTrace.Step mismatchingStep = null;
+        for (ConversionTrace.Step step : trace.getSteps()) {
+            mismatchingStep = step;
+            stepStart = stepEnd;
+            stepEnd += getRomanisation(step).length();
+            if (offset < stepEnd) {
+                break;
+            }
+        }
+        if (mismatchingStep == null) {
+            return new GoldenCorpusResult.Mismatch(lineNumber, expectedLine, actualLine, null, null, null);
+        }
+        String romanisation = getRomanisation(mismatchingStep);
+        int expectedStart = Math.min(Math.max(stepStart - start, 0), expectedLine.length());
+        String expectedRomanisation = expectedLine.substring(expectedStart,
+                Math.min(expectedStart + Math.max(romanisation.length(), 1), expectedLine.length()));
+        return new GoldenCorpusResult.Mismatch(lineNumber, expectedLine, actualLine, mismatchingStep.getGrapheme(),
+                romanisation, expectedRomanisation);
+    }
+
+    private static String getRomanisation(ConversionTrace.Step step)
+    {
+        return step.isMapped() ? step.getRomanisation() : step.getGrapheme();
+    }
+
+    private static boolean isSameChar(char expectedChar, char convertedChar, boolean capitalised)
+    {
+        return expectedChar == convertedChar || (capitalised && expectedChar == Character.toTitleCase(convertedChar));
+    }
+
+    private static List<String> readLines(File file) throws IOException
+    {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Appends the given results to the given tab separated file, writing its header if it doesn't exist yet, so that
+     * the throughput of each corpus can be followed from build to build.
+     */
+    public void appendResults(List<GoldenCorpusResult> results, File file) throws IOException
+    {
+        boolean newFile = !file.exists();
+        String time = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.ROOT).format(new Date());
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            if (newFile) {
+                writer.write(RESULTS_HEADER + "\n");
+            }
+            for (GoldenCorpusResult result : results) {
+                writer.write(String.format(Locale.ROOT, "%s\t%s\t%d\t%d\t%.3f\t%.0f\t%.3f\t%d\t%s\n", time,
+                        result.getName(), result.getLineCount(), result.getByteCount(),
+                        result.getElapsedNanos() / 1e6, result.getLinesPerSecond(), result.getMegabytesPerSecond(),
+                        result.getMismatches().size(), songFormat.getVersion()));
+            }
+        }
+    }
+}
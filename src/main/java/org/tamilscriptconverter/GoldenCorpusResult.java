@@ -0,0 +1,162 @@
+package org.tamilscriptconverter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of converting a golden corpus, a source file whose expected converted file is known: the lines which
+ * differ from the expected ones and the time taken to convert the corpus.
+ *
+ * @since 1.0
+ */
+public class GoldenCorpusResult
+{
+    private final String name;
+    private final long lineCount;
+    private final long byteCount;
+    private final long elapsedNanos;
+    private final List<Mismatch> mismatches;
+
+    GoldenCorpusResult(String name, long lineCount, long byteCount, long elapsedNanos, List<Mismatch> mismatches)
+    {
+        this.name = name;
+        this.lineCount = lineCount;
+        this.byteCount = byteCount;
+        this.elapsedNanos = elapsedNanos;
+        this.mismatches = Collections.unmodifiableList(mismatches);
+    }
+
+    /**
+     * @return the name of the corpus, the name of its source file without the "-source.txt" suffix
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getLineCount()
+    {
+        return lineCount;
+    }
+
+    public long getByteCount()
+    {
+        return byteCount;
+    }
+
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    public List<Mismatch> getMismatches()
+    {
+        return mismatches;
+    }
+
+    public boolean isMatching()
+    {
+        return mismatches.isEmpty();
+    }
+
+    public double getLinesPerSecond()
+    {
+        return elapsedNanos > 0 ? lineCount * 1e9 / elapsedNanos : 0;
+    }
+
+    public double getMegabytesPerSecond()
+    {
+        return elapsedNanos > 0 ? byteCount * 1e9 / elapsedNanos / (1 << 20) : 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s: %d lines, %d mismatches, %.0f lines/s, %.2f MB/s", name, lineCount,
+                mismatches.size(), getLinesPerSecond(), getMegabytesPerSecond());
+    }
+
+    /**
+     * A line of the converted file which differs from the expected one.
+     */
+    public static class Mismatch
+    {
+        private final int lineNumber;
+        private final String expectedLine;
+        private final String actualLine;
+        private final String grapheme;
+        private final String romanisation;
+        private final String expectedRomanisation;
+
+        Mismatch(int lineNumber, String expectedLine, String actualLine, String grapheme, String romanisation,
+                 String expectedRomanisation)
+        {
+            this.lineNumber = lineNumber;
+            this.expectedLine = expectedLine;
+            this.actualLine = actualLine;
+            this.grapheme = grapheme;
+            this.romanisation = romanisation;
+            this.expectedRomanisation = expectedRomanisation;
+        }
+
+        /**
+         * @return the number of the line in the expected file, starting at 1
+         */
+        public int getLineNumber()
+        {
+            return lineNumber;
+        }
+
+        /**
+         * @return the expected line, or null if the converted file has more lines than the expected one
+         */
+        public String getExpectedLine()
+        {
+            return expectedLine;
+        }
+
+        /**
+         * @return the converted line, or null if the converted file has fewer lines than the expected one
+         */
+        public String getActualLine()
+        {
+            return actualLine;
+        }
+
+        /**
+         * @return the first grapheme converted differently, or null if the difference isn't in a converted line
+         */
+        public String getGrapheme()
+        {
+            return grapheme;
+        }
+
+        /**
+         * @return the romanisation of the first grapheme converted differently, or null if there isn't one
+         */
+        public String getRomanisation()
+        {
+            return romanisation;
+        }
+
+        /**
+         * @return the expected text from where the romanisation of the grapheme differs, as long as the
+         * romanisation, or null if there isn't one
+         */
+        public String getExpectedRomanisation()
+        {
+            return expectedRomanisation;
+        }
+
+        @Override
+        public String toString()
+        {
+            String mismatch = "line " + lineNumber + ": expected \"" + expectedLine + "\" but was \"" + actualLine + "\"";
+            if (grapheme != null) {
+                mismatch += ", \"" + grapheme + "\" converted to \"" + romanisation + "\" instead of \"" +
+                        expectedRomanisation + "\"";
+            }
+            return mismatch;
+        }
+    }
+}
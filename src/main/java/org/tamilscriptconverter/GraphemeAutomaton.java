@@ -0,0 +1,461 @@
+package org.tamilscriptconverter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The rules of a {@link MappingTable} compiled into a deterministic automaton, so that converting a text is a single
+ * scan doing a table lookup per char.
+ * <p>
+ * A grapheme can only be converted once the char after it is known, so the state holds the class of the last char
+ * read, which is still pending, and the class of the previous grapheme, which is all the context rules look at: the
+ * previous grapheme is either blank or not, and starts with one of the chars excluded by the rules or with another
+ * one. Each transition holds the romanisation of the pending grapheme completed by the char read, if any, and the
+ * next state. The chars outside the Tamil block are copied as they are, so they are kept in the pending char rather
+ * than in the state. The leading chars to trim are skipped before the scan, as they depend on the chars after them.
+ * <p>
+ * The automaton can also scan UTF-8 bytes, the romanisations being kept encoded as well, so that a UTF-8 text is
+ * converted without decoding it. A Tamil char is always encoded as E0 AE xx or E0 AF xx, so its class is found from
+ * its last two bytes, and the other chars are copied as they are, only being decoded to find whether they are blank.
+ *
+ * @since 1.0
+ */
+final class GraphemeAutomaton
+{
+    private static final int WHITESPACE_CLASS = MappingTable.TAMIL_BLOCK_SIZE;
+    private static final int OTHER_CLASS = WHITESPACE_CLASS + 1;
+    private static final int CHAR_CLASS_COUNT = OTHER_CLASS + 1;
+    private static final int NO_PENDING_CHAR = CHAR_CLASS_COUNT;
+    private static final byte[] CHAR_CLASSES = charClasses();
+    //the flags of a transition
+    private static final byte APPEND_PENDING_CHAR = 1;
+    private static final byte GRAPHEME = 2;
+    private static final byte UNMAPPED = 4;
+    private final MappingTable mappingTable;
+    private final char[] contextChars;
+    private final int contextCount;
+    private final short[] nextStates;
+    private final String[] outputs;
+    private final byte[] flags;
+    private final String[] finalOutputs;
+    private final byte[] finalFlags;
+    private byte[][] utf8Outputs;
+    private byte[][] utf8FinalOutputs;
+    private int maxUtf8OutputLength;
+
+    private GraphemeAutomaton(MappingTable mappingTable)
+    {
+        this.mappingTable = mappingTable;
+        this.contextChars = mappingTable.getContextChars();
+        this.contextCount = (contextChars.length + 1) * 2;
+        int stateCount = (NO_PENDING_CHAR + 1) * contextCount;
+        if (stateCount > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many context chars: " + contextChars.length);
+        }
+        this.nextStates = new short[stateCount * CHAR_CLASS_COUNT];
+        this.outputs = new String[stateCount * CHAR_CLASS_COUNT];
+        this.flags = new byte[stateCount * CHAR_CLASS_COUNT];
+        this.finalOutputs = new String[stateCount];
+        this.finalFlags = new byte[stateCount];
+    }
+
+    /**
+     * Compiles the given mapping table, which takes a few milliseconds, so the automaton should be reused.
+     */
+    static GraphemeAutomaton compile(MappingTable mappingTable)
+    {
+        GraphemeAutomaton automaton = new GraphemeAutomaton(mappingTable);
+        for (int pendingClass = 0; pendingClass <= NO_PENDING_CHAR; pendingClass++) {
+            for (int context = 0; context < automaton.contextCount; context++) {
+                int state = pendingClass * automaton.contextCount + context;
+                for (int charClass = 0; charClass < CHAR_CLASS_COUNT; charClass++) {
+                    automaton.addTransition(state, charClass);
+                }
+                automaton.addFinalTransition(state);
+            }
+        }
+        automaton.utf8Outputs = automaton.encodeOutputs(automaton.outputs);
+        automaton.utf8FinalOutputs = automaton.encodeOutputs(automaton.finalOutputs);
+        return automaton;
+    }
+
+    private byte[][] encodeOutputs(String[] outputs)
+    {
+        byte[][] utf8Outputs = new byte[outputs.length][];
+        for (int i = 0; i < outputs.length; i++) {
+            if (outputs[i] != null) {
+                utf8Outputs[i] = outputs[i].getBytes(StandardCharsets.UTF_8);
+                maxUtf8OutputLength = Math.max(maxUtf8OutputLength, utf8Outputs[i].length);
+            }
+        }
+        return utf8Outputs;
+    }
+
+    private static byte[] charClasses()
+    {
+        byte[] charClasses = new byte[Character.MAX_VALUE + 1];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (MappingTable.isTamil((char) c)) {
+                charClasses[c] = (byte) (c - MappingTable.TAMIL_BLOCK_START);
+            } else {
+                charClasses[c] = (byte) (Character.isWhitespace((char) c) ? WHITESPACE_CLASS : OTHER_CLASS);
+            }
+        }
+        return charClasses;
+    }
+
+    private void addTransition(int state, int charClass)
+    {
+        int pendingClass = state / contextCount;
+        int context = state % contextCount;
+        int transition = state * CHAR_CLASS_COUNT + charClass;
+        int nextContext = context;
+        if (pendingClass == NO_PENDING_CHAR) {
+            //nothing to convert yet
+        } else if (isSign(charClass)) {
+            nextContext = addGrapheme(transition, pendingClass, toChar(charClass), context);
+        } else if (!isSign(pendingClass)) {
+            nextContext = addChar(transition, pendingClass);
+        }
+        nextStates[transition] = (short) (charClass * contextCount + nextContext);
+    }
+
+    /**
+     * The end of the text converts the pending char on its own.
+     */
+    private void addFinalTransition(int state)
+    {
+        int pendingClass = state / contextCount;
+        if (pendingClass != NO_PENDING_CHAR && !isSign(pendingClass)) {
+            addChar(state, pendingClass, finalOutputs, finalFlags);
+        }
+    }
+
+    /**
+     * @return the context of the grapheme made of the pending char and the given sign
+     */
+    private int addGrapheme(int transition, int pendingClass, char sign, int context)
+    {
+        if (pendingClass >= MappingTable.TAMIL_BLOCK_SIZE) {
+            //the romanisation of a sign after a char outside the Tamil block only depends on the sign, so it is
+            //found using any such char and appended after the pending char
+            String romanisation = null;
+            if (sign != TamilScriptConverter.PULLI && mappingTable.hasVowelSign(sign)) {
+                romanisation = mappingTable.getSyllable('x', sign, '\0', false).substring(1);
+            }
+            outputs[transition] = romanisation != null ? romanisation : String.valueOf(sign);
+            flags[transition] = (byte) (APPEND_PENDING_CHAR | GRAPHEME | (romanisation == null ? UNMAPPED : 0));
+            return getContext('\0', false);
+        }
+        char base = toChar(pendingClass);
+        String romanisation = null;
+        if (sign == TamilScriptConverter.PULLI) {
+            romanisation = mappingTable.getDeadConsonant(base);
+        } else if (mappingTable.hasVowelSign(sign)) {
+            romanisation = mappingTable.getSyllable(base, sign, getPreviousChar(context), context % 2 == 1);
+        }
+        outputs[transition] = romanisation != null ? romanisation : base + "" + sign;
+        flags[transition] = (byte) (GRAPHEME | (romanisation == null ? UNMAPPED : 0));
+        return getContext(base, false);
+    }
+
+    /**
+     * @return the context of the pending char converted on its own
+     */
+    private int addChar(int transition, int pendingClass)
+    {
+        return addChar(transition, pendingClass, outputs, flags);
+    }
+
+    private int addChar(int transition, int pendingClass, String[] outputs, byte[] flags)
+    {
+        if (pendingClass >= MappingTable.TAMIL_BLOCK_SIZE) {
+            flags[transition] = APPEND_PENDING_CHAR | GRAPHEME;
+            return getContext('\0', pendingClass == WHITESPACE_CLASS);
+        }
+        char tamilChar = toChar(pendingClass);
+        String letter = mappingTable.getLetter(tamilChar);
+        outputs[transition] = letter != null ? letter : String.valueOf(tamilChar);
+        flags[transition] = (byte) (GRAPHEME | (letter == null ? UNMAPPED : 0));
+        return getContext(tamilChar, false);
+    }
+
+    private static boolean isSign(int charClass)
+    {
+        return charClass < MappingTable.TAMIL_BLOCK_SIZE && MappingTable.isSignAfterChar(toChar(charClass));
+    }
+
+    private static char toChar(int tamilCharClass)
+    {
+        return (char) (MappingTable.TAMIL_BLOCK_START + tamilCharClass);
+    }
+
+    /**
+     * @return the context of a grapheme starting with the given char
+     */
+    private int getContext(char firstChar, boolean blank)
+    {
+        int contextChar = 0;
+        for (int i = 0; i < contextChars.length; i++) {
+            if (contextChars[i] == firstChar) {
+                contextChar = i + 1;
+            }
+        }
+        return contextChar * 2 + (blank ? 1 : 0);
+    }
+
+    /**
+     * @return the first char of the graphemes of the given context, or 0 if it isn't one of the context chars
+     */
+    private char getPreviousChar(int context)
+    {
+        return context < 2 ? '\0' : contextChars[context / 2 - 1];
+    }
+
+    /**
+     * Converts the graphemes starting between the given index and the given end, using the char at the end, if any,
+     * to find whether the last char is followed by a sign.
+     *
+     * @param previousChar  the first char of the grapheme before the given index
+     * @param previousBlank whether the grapheme before the given index is blank, or there isn't one
+     */
+    void convert(CharSequence text, int from, int to, char previousChar, boolean previousBlank, Appendable out)
+            throws IOException
+    {
+        int length = text.length();
+        int end = Math.min(to + 1, length);
+        int state = NO_PENDING_CHAR * contextCount + getContext(previousChar, previousBlank);
+        char pendingChar = 0;
+        int graphemeCount = 0;
+        int unmappedCharCount = 0;
+        for (int i = from; i < end; i++) {
+            char c = text.charAt(i);
+            int transition = state * CHAR_CLASS_COUNT + (CHAR_CLASSES[c] & 0xff);
+            byte transitionFlags = flags[transition];
+            if (transitionFlags != 0) {
+                if ((transitionFlags & APPEND_PENDING_CHAR) != 0) {
+                    out.append(pendingChar);
+                }
+                if (outputs[transition] != null) {
+                    out.append(outputs[transition]);
+                }
+                graphemeCount++;
+                unmappedCharCount += (transitionFlags & UNMAPPED) >> 2;
+            }
+            state = nextStates[transition];
+            pendingChar = c;
+        }
+        if (to == length && finalFlags[state] != 0) {
+            if ((finalFlags[state] & APPEND_PENDING_CHAR) != 0) {
+                out.append(pendingChar);
+            }
+            if (finalOutputs[state] != null) {
+                out.append(finalOutputs[state]);
+            }
+            graphemeCount++;
+            unmappedCharCount += (finalFlags[state] & UNMAPPED) >> 2;
+        }
+        ConversionMetrics.GLOBAL.addGraphemes(graphemeCount, unmappedCharCount);
+    }
+
+    /**
+     * Finds the class of each char of the given text, so that the text can be converted by several automata
+     * without looking up the class of its chars again.
+     */
+    static byte[] getCharClasses(CharSequence text)
+    {
+        byte[] charClasses = new byte[text.length()];
+        for (int i = 0; i < charClasses.length; i++) {
+            charClasses[i] = CHAR_CLASSES[text.charAt(i)];
+        }
+        return charClasses;
+    }
+
+    /**
+     * Converts the given whole text from the given index, using the classes of its chars found by
+     * {@link #getCharClasses(CharSequence)}. Gives the same result as
+     * {@link #convert(CharSequence, int, int, char, boolean, Appendable)} from the start of a text.
+     *
+     * @param countGraphemes whether the graphemes are counted in the metrics, which must only be done once per text
+     */
+    void convert(CharSequence text, byte[] charClasses, int from, Appendable out, boolean countGraphemes)
+            throws IOException
+    {
+        int length = charClasses.length;
+        int state = NO_PENDING_CHAR * contextCount + getContext(' ', true);
+        int graphemeCount = 0;
+        int unmappedCharCount = 0;
+        for (int i = from; i < length; i++) {
+            int transition = state * CHAR_CLASS_COUNT + (charClasses[i] & 0xff);
+            byte transitionFlags = flags[transition];
+            if (transitionFlags != 0) {
+                if ((transitionFlags & APPEND_PENDING_CHAR) != 0) {
+                    out.append(text.charAt(i - 1));
+                }
+                if (outputs[transition] != null) {
+                    out.append(outputs[transition]);
+                }
+                graphemeCount++;
+                unmappedCharCount += (transitionFlags & UNMAPPED) >> 2;
+            }
+            state = nextStates[transition];
+        }
+        if (finalFlags[state] != 0) {
+            if ((finalFlags[state] & APPEND_PENDING_CHAR) != 0) {
+                out.append(text.charAt(length - 1));
+            }
+            if (finalOutputs[state] != null) {
+                out.append(finalOutputs[state]);
+            }
+            graphemeCount++;
+            unmappedCharCount += (finalFlags[state] & UNMAPPED) >> 2;
+        }
+        if (countGraphemes) {
+            ConversionMetrics.GLOBAL.addGraphemes(graphemeCount, unmappedCharCount);
+        }
+    }
+
+    /**
+     * @return the number of bytes which is enough for the UTF-8 romanisation of the given number of UTF-8 bytes
+     */
+    int getMaxUtf8Length(int byteCount)
+    {
+        //each char outputs at most the pending char, which is at most 4 bytes, and a romanisation
+        return (byteCount + 1) * (maxUtf8OutputLength + 4);
+    }
+
+    /**
+     * Converts the UTF-8 text between the given indexes, the whole text to convert, and writes its UTF-8
+     * romanisation to the given array, which must have room for {@link #getMaxUtf8Length(int)} bytes. Gives the same
+     * result as {@link #convert(CharSequence, int, int, char, boolean, Appendable)} on the decoded text.
+     *
+     * @param previousChar  the first char of the grapheme before the text
+     * @param previousBlank whether the grapheme before the text is blank, or there isn't one
+     * @return the index after the romanisation in the given array, or -1 if the text isn't valid UTF-8
+     */
+    int convertUtf8(byte[] text, int from, int to, char previousChar, boolean previousBlank, byte[] out, int offset)
+    {
+        int state = NO_PENDING_CHAR * contextCount + getContext(previousChar, previousBlank);
+        int pendingCharStart = from;
+        int pendingCharLength = 0;
+        int graphemeCount = 0;
+        int unmappedCharCount = 0;
+        int i = from;
+        while (i < to) {
+            int b = text[i];
+            int charClass;
+            int charLength;
+            if (b >= 0) {
+                charClass = CHAR_CLASSES[b] & 0xff;
+                charLength = 1;
+            } else if (b == (byte) 0xe0 && i + 2 < to && (text[i + 1] & 0xfe) == 0xae && (text[i + 2] & 0xc0) == 0x80) {
+                charClass = (text[i + 1] & 1) << 6 | text[i + 2] & 0x3f;
+                charLength = 3;
+            } else {
+                charLength = getUtf8CharLength(text, i, to);
+                if (charLength < 0) {
+                    return -1;
+                }
+                //a char outside the basic plane is a pair of surrogates, which are copied like any other char
+                charClass = charLength < 4 ? CHAR_CLASSES[decodeUtf8Char(text, i, charLength)] & 0xff : OTHER_CLASS;
+            }
+            int transition = state * CHAR_CLASS_COUNT + charClass;
+            byte transitionFlags = flags[transition];
+            if (transitionFlags != 0) {
+                if ((transitionFlags & APPEND_PENDING_CHAR) != 0) {
+                    System.arraycopy(text, pendingCharStart, out, offset, pendingCharLength);
+                    offset += pendingCharLength;
+                }
+                byte[] output = utf8Outputs[transition];
+                if (output != null) {
+                    System.arraycopy(output, 0, out, offset, output.length);
+                    offset += output.length;
+                }
+                graphemeCount++;
+                unmappedCharCount += (transitionFlags & UNMAPPED) >> 2;
+            }
+            state = nextStates[transition];
+            pendingCharStart = i;
+            pendingCharLength = charLength;
+            i += charLength;
+        }
+        if (finalFlags[state] != 0) {
+            if ((finalFlags[state] & APPEND_PENDING_CHAR) != 0) {
+                System.arraycopy(text, pendingCharStart, out, offset, pendingCharLength);
+                offset += pendingCharLength;
+            }
+            byte[] output = utf8FinalOutputs[state];
+            if (output != null) {
+                System.arraycopy(output, 0, out, offset, output.length);
+                offset += output.length;
+            }
+            graphemeCount++;
+            unmappedCharCount += (finalFlags[state] & UNMAPPED) >> 2;
+        }
+        ConversionMetrics.GLOBAL.addGraphemes(graphemeCount, unmappedCharCount);
+        return offset;
+    }
+
+    /**
+     * @return the length of the UTF-8 sequence starting at the given index, or -1 if it isn't a well-formed one,
+     * following the same rules as the UTF-8 decoder of the JDK
+     */
+    static int getUtf8CharLength(byte[] text, int i, int to)
+    {
+        int b = text[i] & 0xff;
+        if (b < 0x80) {
+            return 1;
+        }
+        int length;
+        int min = 0x80;
+        int max = 0xbf;
+        if (b >= 0xc2 && b <= 0xdf) {
+            length = 2;
+        } else if (b >= 0xe0 && b <= 0xef) {
+            length = 3;
+            if (b == 0xe0) {
+                min = 0xa0;
+            } else if (b == 0xed) {
+                //surrogates
+                max = 0x9f;
+            }
+        } else if (b >= 0xf0 && b <= 0xf4) {
+            length = 4;
+            if (b == 0xf0) {
+                min = 0x90;
+            } else if (b == 0xf4) {
+                max = 0x8f;
+            }
+        } else {
+            return -1;
+        }
+        if (i + length > to) {
+            return -1;
+        }
+        int second = text[i + 1] & 0xff;
+        if (second < min || second > max) {
+            return -1;
+        }
+        for (int j = i + 2; j < i + length; j++) {
+            if ((text[j] & 0xc0) != 0x80) {
+                return -1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return the char encoded by the well-formed UTF-8 sequence of 1 to 3 bytes starting at the given index
+     */
+    static char decodeUtf8Char(byte[] text, int i, int length)
+    {
+        switch (length) {
+            case 1:
+                return (char) text[i];
+            case 2:
+                return (char) ((text[i] & 0x1f) << 6 | text[i + 1] & 0x3f);
+            default:
+                return (char) ((text[i] & 0x0f) << 12 | (text[i + 1] & 0x3f) << 6 | text[i + 2] & 0x3f);
+        }
+    }
+}
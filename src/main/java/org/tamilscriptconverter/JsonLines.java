@@ -0,0 +1,243 @@
+package org.tamilscriptconverter;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the string fields of a JSON object written on a single line and sets fields of it, leaving the rest of
+ * the line as it is. Only the fields of the object itself are looked at, the nested objects and arrays are skipped.
+ *
+ * @since 1.0
+ */
+final class JsonLines
+{
+    private JsonLines()
+    {
+    }
+
+    /**
+     * @return the values of the given string fields of the object on the given line, by their names
+     * @throws IllegalArgumentException if the line isn't a JSON object
+     */
+    static Map<String, String> getStringFields(String line, Set<String> names)
+    {
+        Map<String, String> fields = new LinkedHashMap<>();
+        Parser parser = new Parser(line);
+        parser.expect('{');
+        if (parser.peek() == '}') {
+            return fields;
+        }
+        do {
+            String name = parser.readString();
+            parser.expect(':');
+            if (parser.peek() == '"' && names.contains(name)) {
+                fields.put(name, parser.readString());
+            } else {
+                parser.skipValue();
+            }
+        } while (parser.next(',', '}') == ',');
+        return fields;
+    }
+
+    /**
+     * Sets the given string fields of the object on the given line, replacing the values of the fields it already
+     * has and appending the other ones at its end.
+     *
+     * @throws IllegalArgumentException if the line isn't a JSON object
+     */
+    static String addStringFields(String line, Map<String, String> fields)
+    {
+        StringBuilder builder = new StringBuilder(line.length() + 64);
+        Set<String> replacedNames = new HashSet<>();
+        int copiedLength = 0;
+        Parser parser = new Parser(line);
+        parser.expect('{');
+        boolean empty = parser.peek() == '}';
+        if (empty) {
+            parser.expect('}');
+        } else {
+            do {
+                String name = parser.readString();
+                parser.expect(':');
+                parser.peek();
+                int valueStart = parser.index;
+                parser.skipValue();
+                if (fields.containsKey(name)) {
+                    builder.append(line, copiedLength, valueStart);
+                    appendString(fields.get(name), builder);
+                    copiedLength = parser.index;
+                    replacedNames.add(name);
+                }
+            } while (parser.next(',', '}') == ',');
+        }
+        int end = parser.index - 1;
+        builder.append(line, copiedLength, end);
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (replacedNames.contains(field.getKey())) {
+                continue;
+            }
+            if (!empty) {
+                builder.append(',');
+            }
+            empty = false;
+            appendString(field.getKey(), builder);
+            builder.append(':');
+            appendString(field.getValue(), builder);
+        }
+        return builder.append(line, end, line.length()).toString();
+    }
+
+    static void appendString(String value, StringBuilder out)
+    {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    private static class Parser
+    {
+        private final String text;
+        private int index;
+
+        Parser(String text)
+        {
+            this.text = text;
+        }
+
+        char peek()
+        {
+            while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+                index++;
+            }
+            if (index >= text.length()) {
+                throw error("Unexpected end of the line");
+            }
+            return text.charAt(index);
+        }
+
+        void expect(char expected)
+        {
+            if (peek() != expected) {
+                throw error("Expected " + expected);
+            }
+            index++;
+        }
+
+        char next(char first, char second)
+        {
+            char c = peek();
+            if (c != first && c != second) {
+                throw error("Expected " + first + " or " + second);
+            }
+            index++;
+            return c;
+        }
+
+        String readString()
+        {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (index < text.length()) {
+                char c = text.charAt(index++);
+                if (c == '"') {
+                    return value.toString();
+                } else if (c != '\\') {
+                    value.append(c);
+                } else if (index < text.length()) {
+                    char escaped = text.charAt(index++);
+                    switch (escaped) {
+                        case 'b':
+                            value.append('\b');
+                            break;
+                        case 'f':
+                            value.append('\f');
+                            break;
+                        case 'n':
+                            value.append('\n');
+                            break;
+                        case 'r':
+                            value.append('\r');
+                            break;
+                        case 't':
+                            value.append('\t');
+                            break;
+                        case 'u':
+                            if (index + 4 > text.length()) {
+                                throw error("Invalid unicode escape");
+                            }
+                            try {
+                                value.append((char) Integer.parseInt(text.substring(index, index + 4), 16));
+                            } catch (NumberFormatException ex) {
+                                throw error("Invalid unicode escape");
+                            }
+                            index += 4;
+                            break;
+                        default:
+                            value.append(escaped);
+                    }
+                }
+            }
+            throw error("String not closed");
+        }
+
+        void skipValue()
+        {
+            char c = peek();
+            if (c == '"') {
+                readString();
+            } else if (c == '{' || c == '[') {
+                int depth = 0;
+                do {
+                    c = peek();
+                    if (c == '"') {
+                        readString();
+                        continue;
+                    }
+                    if (c == '{' || c == '[') {
+                        depth++;
+                    } else if (c == '}' || c == ']') {
+                        depth--;
+                    }
+                    index++;
+                } while (depth > 0);
+            } else {
+                //a number, true, false or null
+                while (index < text.length() && ",}] \t".indexOf(text.charAt(index)) < 0) {
+                    index++;
+                }
+            }
+        }
+
+        IllegalArgumentException error(String message)
+        {
+            return new IllegalArgumentException(message + " at " + index + " in " + text);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.tamilscriptconverter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records durations in buckets whose bounds are powers of 2 of nanoseconds, so that recording is a few atomic
+ * increments whatever the number of durations. The percentiles are the upper bound of the bucket they fall in, so
+ * they are at most twice the actual value. Can be updated by several threads at once.
+ *
+ * @since 1.0
+ */
+public class LatencyHistogram
+{
+    private static final int BUCKET_COUNT = 64;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos)
+    {
+        long duration = Math.max(0, nanos);
+        buckets.incrementAndGet(BUCKET_COUNT - Long.numberOfLeadingZeros(duration));
+        count.incrementAndGet();
+        totalNanos.addAndGet(duration);
+        long max;
+        while (duration > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, duration)) {
+            //another thread has updated the maximum, compare with its value
+        }
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    public double getMeanMillis()
+    {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : totalNanos.get() / (double) recorded / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxMillis()
+    {
+        return maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket of the given percentile, or 0 if nothing has been recorded
+     */
+    public double getPercentileMillis(double percentile)
+    {
+        long recorded = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            recorded += counts[i];
+        }
+        long rank = (long) Math.ceil(recorded * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (counts[i] > 0 && seen >= rank) {
+                return Math.min(upperBound(i), maxNanos.get()) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            }
+        }
+        return 0;
+    }
+
+    private static long upperBound(int bucket)
+    {
+        return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    public void reset()
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("count=%d, mean=%.3f ms, p50=%.3f ms, p99=%.3f ms, max=%.3f ms", getCount(),
+                getMeanMillis(), getPercentileMillis(50), getPercentileMillis(99), getMaxMillis());
+    }
+}
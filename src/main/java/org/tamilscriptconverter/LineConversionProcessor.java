@@ -0,0 +1,265 @@
+package org.tamilscriptconverter;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Converts a stream of song lines published by a {@link Flow.Publisher} to {@link ConvertedLine}s, converted the
+ * way {@link SongFormat#convertLine(long, String)} converts them, for a single subscriber.
+ * <p>
+ * The lines are only requested from the publisher when the subscriber requests converted lines, at most
+ * {@code bufferSize} of them being requested ahead, so a slow subscriber slows down the publisher rather than lines
+ * piling up. The lines are converted by the thread publishing them, or by the given executor, in which case several
+ * lines can be converted at once and the converted lines are still given in the order the lines were published. The
+ * converted lines are given by the thread which completes a conversion or requests them, never by two threads at
+ * once.
+ * <p>
+ * An error of the publisher or of a conversion is given to the subscriber straight away, the lines being converted
+ * being dropped.
+ *
+ * @since 1.0
+ */
+public class LineConversionProcessor implements Flow.Processor<String, ConvertedLine>
+{
+    private final SongFormat songFormat;
+    private final Executor executor;
+    private final int bufferSize;
+    private final Queue<CompletableFuture<ConvertedLine>> pendingLines = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Flow.Subscriber<? super ConvertedLine>> subscriber = new AtomicReference<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger drainCount = new AtomicInteger();
+    private volatile Flow.Subscription subscription;
+    private volatile boolean completed;
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+    //only used by the thread publishing the lines
+    private long lineCount;
+    //only used while draining, the number of lines requested from the publisher and not given to the subscriber yet
+    private long outstandingCount;
+    private boolean terminated;
+
+    /**
+     * Creates a processor converting the lines with the default song format, in the thread publishing them.
+     */
+    public LineConversionProcessor()
+    {
+        this(SongFormat.DEFAULT, null, Flow.defaultBufferSize());
+    }
+
+    /**
+     * @param executor   the executor converting the lines, or null to convert them in the thread publishing them
+     * @param bufferSize the maximum number of lines requested from the publisher ahead of the subscriber
+     */
+    public LineConversionProcessor(SongFormat songFormat, Executor executor, int bufferSize)
+    {
+        if (songFormat == null) {
+            throw new IllegalArgumentException("Song format can't be null");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size should be at least 1 but was " + bufferSize);
+        }
+        this.songFormat = songFormat;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ConvertedLine> subscriber)
+    {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber can't be null");
+        }
+        if (!this.subscriber.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription()
+            {
+                @Override
+                public void request(long n)
+                {
+                }
+
+                @Override
+                public void cancel()
+                {
+                }
+            });
+            subscriber.onError(new IllegalStateException("The converted lines can only have one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription()
+        {
+            @Override
+            public void request(long n)
+            {
+                if (n <= 0) {
+                    fail(new IllegalArgumentException("The number of converted lines requested should be positive " +
+                            "but was " + n));
+                    return;
+                }
+                long current;
+                do {
+                    current = requested.get();
+                } while (!requested.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+                drain();
+            }
+
+            @Override
+            public void cancel()
+            {
+                cancelled = true;
+                cancelSubscription();
+                drain();
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        if (this.subscription != null || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(final String line)
+    {
+        if (line == null) {
+            throw new NullPointerException("Line can't be null");
+        }
+        if (cancelled || error != null) {
+            return;
+        }
+        final long lineNumber = ++lineCount;
+        CompletableFuture<ConvertedLine> convertedLine;
+        try {
+            if (executor == null) {
+                convertedLine = CompletableFuture.completedFuture(songFormat.convertLine(lineNumber, line));
+            } else {
+                convertedLine = CompletableFuture.supplyAsync(new Supplier<ConvertedLine>()
+                {
+                    @Override
+                    public ConvertedLine get()
+                    {
+                        return songFormat.convertLine(lineNumber, line);
+                    }
+                }, executor);
+            }
+        } catch (RuntimeException ex) {
+            fail(ex);
+            return;
+        }
+        pendingLines.add(convertedLine);
+        convertedLine.whenComplete(new BiConsumer<ConvertedLine, Throwable>()
+        {
+            @Override
+            public void accept(ConvertedLine convertedLine, Throwable ex)
+            {
+                if (ex != null) {
+                    fail(ex.getCause() != null ? ex.getCause() : ex);
+                } else {
+                    drain();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete()
+    {
+        completed = true;
+        drain();
+    }
+
+    private void fail(Throwable throwable)
+    {
+        if (error == null) {
+            error = throwable;
+        }
+        cancelSubscription();
+        drain();
+    }
+
+    private void cancelSubscription()
+    {
+        Flow.Subscription subscription = this.subscription;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Gives the converted lines requested to the subscriber, then requests more lines from the publisher. Only run
+     * by one thread at a time, and run again by that thread if it is called meanwhile.
+     */
+    private void drain()
+    {
+        if (drainCount.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super ConvertedLine> subscriber = this.subscriber.get();
+            if (subscriber != null && !terminated) {
+                if (cancelled) {
+                    terminated = true;
+                    pendingLines.clear();
+                } else if (error != null) {
+                    terminated = true;
+                    pendingLines.clear();
+                    subscriber.onError(error);
+                } else {
+                    emit(subscriber);
+                }
+            }
+            missed = drainCount.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emit(Flow.Subscriber<? super ConvertedLine> subscriber)
+    {
+        long demand = requested.get();
+        long emittedCount = 0;
+        CompletableFuture<ConvertedLine> convertedLine;
+        while (emittedCount < demand && (convertedLine = pendingLines.peek()) != null && convertedLine.isDone() &&
+                !convertedLine.isCompletedExceptionally() && !cancelled && error == null) {
+            pendingLines.poll();
+            subscriber.onNext(convertedLine.join());
+            emittedCount++;
+        }
+        if (emittedCount > 0) {
+            if (demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emittedCount);
+            }
+            outstandingCount -= emittedCount;
+        }
+        if (completed && pendingLines.isEmpty() && !cancelled && error == null) {
+            terminated = true;
+            subscriber.onComplete();
+            return;
+        }
+        Flow.Subscription subscription = this.subscription;
+        long missingCount = Math.min(requested.get(), bufferSize) - outstandingCount;
+        if (subscription != null && !completed && missingCount > 0) {
+            outstandingCount += missingCount;
+            subscription.request(missingCount);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.tamilscriptconverter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.Configurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.status.NopStatusListener;
+
+/**
+ * Configures logback the way a logback.xml file would, without loading and running its XML configurator, which
+ * takes longer than converting a song when the converter is run from the command line. Logback only looks for this
+ * configurator when no configuration file is found, so a logback-test.xml file or the logback.configurationFile
+ * system property still take precedence.
+ * <p>
+ * Nothing is logged when the {@link #QUIET_PROPERTY} system property is true, in which case no appender is created
+ * and the status messages of logback itself are ignored.
+ *
+ * @since 1.0
+ */
+public class LoggingConfigurator extends ContextAwareBase implements Configurator
+{
+    static final String QUIET_PROPERTY = "tamilscriptconverter.quiet";
+    private static final String PATTERN = "%d %-5p %c - %m%n";
+
+    @Override
+    public void configure(LoggerContext loggerContext)
+    {
+        Logger rootLogger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        if (Boolean.getBoolean(QUIET_PROPERTY)) {
+            rootLogger.setLevel(Level.OFF);
+            //logback prints its own errors and warnings when there is no status listener, loading a date format
+            loggerContext.getStatusManager().add(new NopStatusListener());
+            return;
+        }
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        ConsoleAppender<ILoggingEvent> appender = new ConsoleAppender<>();
+        appender.setContext(loggerContext);
+        appender.setName("STDOUT");
+        appender.setEncoder(encoder);
+        appender.start();
+        rootLogger.setLevel(Level.ERROR);
+        rootLogger.addAppender(appender);
+        loggerContext.getLogger(LoggingConfigurator.class.getPackage().getName()).setLevel(Level.DEBUG);
+    }
+}
@@ -2,6 +2,12 @@ package org.tamilscriptconverter;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author James Selvakumar
@@ -9,14 +15,205 @@ import java.io.IOException;
  */
 public class Main
 {
+    private static final int SERVER_QUEUE_CAPACITY_PER_THREAD = 16;
+    private static final int SEARCH_HIT_COUNT = 10;
+    private static final String GOLDEN_RESULTS_FILE_NAME = "golden-results.tsv";
+    //the options followed by a value, which must not be taken for the source when the value is missing
+    private static final List<String> VALUE_OPTIONS = Arrays.asList("-t", "--threads", "-s", "--sections", "-r",
+            "--mapping", "--serve", "--metrics", "--columns", "--index", "--golden", "--bundle", "--search", "--trace");
+
     public static void main(String[] args)
     {
-        if(args.length > 0) {
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        boolean memoryMapped = false;
+        boolean incremental = false;
+        boolean parallel = false;
+        boolean watch = false;
+        boolean quiet = false;
+        SectionHeaderParser sectionHeaderParser = SectionHeaderParser.DEFAULT;
+        List<MappingTable> mappingTables = Collections.singletonList(MappingTable.HOUSE_STYLE);
+        int port = -1;
+        int metricsPeriod = 0;
+        String textToTrace = null;
+        String tableColumns = null;
+        boolean database = false;
+        String indexFile = null;
+        String query = null;
+        String bundleFile = null;
+        String goldenDirectory = null;
+        String source = null;
+        for (int i = 0; i < args.length; i++) {
+            if (VALUE_OPTIONS.contains(args[i]) && i + 1 == args.length) {
+                System.out.println("Missing value for option " + args[i]);
+                return;
+            }
+            if (("-t".equals(args[i]) || "--threads".equals(args[i]))) {
+                try {
+                    threadCount = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid number of threads: " + args[i]);
+                    return;
+                }
+            } else if (("-s".equals(args[i]) || "--sections".equals(args[i]))) {
+                sectionHeaderParser = SectionHeaderParser.valueOf(args[++i]);
+            } else if (("-r".equals(args[i]) || "--mapping".equals(args[i]))) {
+                try {
+                    mappingTables = loadMappingTables(args[++i]);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Invalid mapping table " + args[i] + ": " + e.getMessage());
+                    return;
+                }
+            } else if ("--serve".equals(args[i])) {
+                try {
+                    port = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid port: " + args[i]);
+                    return;
+                }
+            } else if ("--metrics".equals(args[i])) {
+                try {
+                    metricsPeriod = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid number of seconds: " + args[i]);
+                    return;
+                }
+            } else if ("--columns".equals(args[i])) {
+                tableColumns = args[++i];
+            } else if ("--index".equals(args[i])) {
+                indexFile = args[++i];
+            } else if ("--golden".equals(args[i])) {
+                goldenDirectory = args[++i];
+            } else if ("--bundle".equals(args[i])) {
+                bundleFile = args[++i];
+            } else if ("--search".equals(args[i])) {
+                query = args[++i];
+            } else if ("--songbook".equals(args[i])) {
+                database = true;
+            } else if ("--trace".equals(args[i])) {
+                textToTrace = args[++i];
+            } else if ("-m".equals(args[i]) || "--mapped".equals(args[i])) {
+                memoryMapped = true;
+            } else if ("-i".equals(args[i]) || "--incremental".equals(args[i])) {
+                incremental = true;
+            } else if ("-p".equals(args[i]) || "--parallel".equals(args[i])) {
+                parallel = true;
+            } else if ("-w".equals(args[i]) || "--watch".equals(args[i])) {
+                watch = true;
+            } else if ("-q".equals(args[i]) || "--quiet".equals(args[i])) {
+                quiet = true;
+            } else {
+                source = args[i];
+            }
+        }
+        if (quiet) {
+            //must be set before the first logger is created, which configures the logging
+            System.setProperty(LoggingConfigurator.QUIET_PROPERTY, "true");
+        }
+        //the songs are converted with the first mapping table, the tables with all of them
+        MappingTable mappingTable = mappingTables.get(0);
+        //the house style automaton is already compiled for the default format
+        SongFormat songFormat = new SongFormat(mappingTable == MappingTable.HOUSE_STYLE ? Transliterator.DEFAULT
+                : new Transliterator(mappingTable), sectionHeaderParser);
+        if (textToTrace != null) {
+            System.out.println(songFormat.getTransliterator().trace(textToTrace));
+            return;
+        }
+        //starting the platform MBean server takes longer than converting a few files, so it is only done when the
+        //metrics are asked for or the converter keeps running
+        if (metricsPeriod > 0 || port >= 0 || watch) {
+            ConversionMetrics.registerGlobal();
+        }
+        MetricsReporter metricsReporter = null;
+        if (metricsPeriod > 0) {
+            metricsReporter = new MetricsReporter(ConversionMetrics.GLOBAL);
+            metricsReporter.start(metricsPeriod, TimeUnit.SECONDS);
+        }
+        if (port >= 0) {
             try {
-                TamilScriptConverter.convertFiles(new File(args[0]));
+                serve(port, threadCount, songFormat);
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+            }
+        } else if (goldenDirectory != null) {
+            try {
+                if (!checkGoldenCorpora(new File(goldenDirectory), threadCount, songFormat)) {
+                    System.exit(1);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else if (indexFile != null && query != null) {
+            try {
+                for (SongIndex.Hit hit : SongIndex.read(new File(indexFile)).search(query, SEARCH_HIT_COUNT)) {
+                    System.out.println(hit);
+                }
             } catch (IOException e) {
                 e.printStackTrace();
             }
+        } else if (source != null && indexFile != null) {
+            try {
+                SongIndex index = new SongIndex.Builder(songFormat.getTransliterator()).addSongs(new File(source))
+                        .build();
+                index.write(new File(indexFile));
+                System.out.println("Indexed " + index.getLineCount() + " lines of " + index.getSongCount() + " songs");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else if (source != null && bundleFile != null) {
+            try {
+                SongBundleWriter bundleWriter = new SongBundleWriter(songFormat).addSongs(new File(source));
+                bundleWriter.write(new File(bundleFile));
+                System.out.println("Bundled " + bundleWriter.getSongCount() + " songs");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else if (source != null && database) {
+            try {
+                SongDatabaseConverter databaseConverter = new SongDatabaseConverter();
+                databaseConverter.setSongFormat(songFormat);
+                System.out.println("Converted " + databaseConverter.convert(new File(source)) + " songs");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else if (source != null && watch) {
+            try {
+                watch(new File(source), threadCount, songFormat);
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+            }
+        } else if (source != null && tableColumns != null) {
+            try {
+                File sourceFile = new File(source);
+                TableConverter tableConverter = new TableConverter(TableFormat.fromFileName(source),
+                        TableConverter.parseColumns(tableColumns), threadCount);
+                List<Transliterator> transliterators = new ArrayList<>();
+                transliterators.add(songFormat.getTransliterator());
+                for (MappingTable table : mappingTables.subList(1, mappingTables.size())) {
+                    transliterators.add(table == MappingTable.HOUSE_STYLE ? Transliterator.DEFAULT
+                            : new Transliterator(table));
+                }
+                tableConverter.setTransliterators(transliterators);
+                long rowCount = tableConverter.convert(sourceFile, TamilScriptConverter.getTargetFile(sourceFile));
+                System.out.println("Converted " + rowCount + " rows, skipped " + tableConverter.getSkippedRowCount() +
+                        " invalid rows");
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+            }
+        } else if (source != null) {
+            try {
+                BatchConverter batchConverter = new BatchConverter(threadCount);
+                batchConverter.setMemoryMapped(memoryMapped);
+                batchConverter.setIncremental(incremental);
+                batchConverter.setParallel(parallel);
+                batchConverter.setSongFormat(songFormat);
+                System.out.println(batchConverter.convert(new File(source)));
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+            } finally {
+                if (metricsReporter != null) {
+                    metricsReporter.stop();
+                }
+            }
         } else {
             System.out.println("Run the program again by specifying the name of the file or directory which you would like to convert");
             System.out.println("Example 1:");
@@ -24,6 +221,123 @@ public class Main
             System.out.println("");
             System.out.println("Example 2:");
             System.out.println("java -jar <jar-file> /foo/files-to-be-converted");
+            System.out.println("");
+            System.out.println("Example 3:");
+            System.out.println("java -jar <jar-file> --serve 8080");
+            System.out.println("");
+            System.out.println("Options:");
+            System.out.println("-t, --threads <count>  number of threads used to convert a directory (default: number of cores)");
+            System.out.println("-m, --mapped           memory map the files while converting them, useful for very large files");
+            System.out.println("-i, --incremental      only convert the files of a directory which have changed since the last time");
+            System.out.println("-p, --parallel         split a single large file between the threads instead of converting it using one");
+            System.out.println("-w, --watch            keep converting the files of a directory as soon as they are created or modified");
+            System.out.println("-q, --quiet            don't log anything, only print the summary of the conversion");
+            System.out.println("-s, --sections <list>  markers which start a section, like Chorus,Bridge,பல்லவி=Chorus");
+            System.out.println("-r, --mapping <names>  romanisation to use: house-style (default), search, iso-15919 or a mapping file,");
+            System.out.println("                       several ones like house-style,search add a column for each of them with --columns");
+            System.out.println("--metrics <seconds>    log the lines, graphemes and bytes converted so far every given seconds");
+            System.out.println("--columns <list>       convert the given columns of a CSV, TSV or JSON lines file, like title,lyrics");
+            System.out.println("--songbook             convert the songs of the given OpenLP songbook database in place");
+            System.out.println("--index <file>         index the songs of the given directory in the given file to search them");
+            System.out.println("--search <query>       search the songs of the index given by --index, like \"yaesu raajanae\"");
+            System.out.println("--bundle <file>        write the songs of the given directory converted to a compact binary bundle");
+            System.out.println("--golden <directory>   compare the conversion of the *-source.txt files with the *-expected.txt files");
+            System.out.println("--trace <text>         show how the given text is split into graphemes and converted");
+            System.out.println("--serve <port>         convert the text posted to /convert, /batch and /song instead of files");
+        }
+    }
+
+    private static void serve(int port, int threadCount, SongFormat songFormat) throws IOException
+    {
+        //the JDK server reads its configuration when the first one is created and doesn't time out by default
+        if (System.getProperty(ConversionServer.REQUEST_TIMEOUT_PROPERTY) == null) {
+            System.setProperty(ConversionServer.REQUEST_TIMEOUT_PROPERTY,
+                    String.valueOf(ConversionServer.DEFAULT_REQUEST_TIMEOUT_SECONDS));
+        }
+        final ConversionServer server = new ConversionServer(new InetSocketAddress(port), threadCount,
+                threadCount * SERVER_QUEUE_CAPACITY_PER_THREAD, songFormat);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread()
+        {
+            @Override
+            public void run()
+            {
+                server.stop(1);
+            }
+        });
+        System.out.println("Listening to " + server.getAddress() + ", press Ctrl+C to stop");
+    }
+
+    private static void watch(File directory, int threadCount, SongFormat songFormat) throws IOException
+    {
+        final FolderWatcher watcher = new FolderWatcher(directory, threadCount);
+        watcher.setSongFormat(songFormat);
+        watcher.start();
+        Runtime.getRuntime().addShutdownHook(new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+        System.out.println("Watching " + directory + ", press Ctrl+C to stop");
+    }
+
+    /**
+     * Prints the result of each golden corpus of the given directory and appends them to the results file.
+     *
+     * @return whether all the corpora are converted as expected
+     */
+    private static boolean checkGoldenCorpora(File directory, int threadCount, SongFormat songFormat)
+            throws IOException
+    {
+        GoldenCorpusChecker checker = new GoldenCorpusChecker(threadCount);
+        checker.setSongFormat(songFormat);
+        List<GoldenCorpusResult> results = checker.check(directory);
+        boolean matching = true;
+        for (GoldenCorpusResult result : results) {
+            System.out.println(result);
+            for (GoldenCorpusResult.Mismatch mismatch : result.getMismatches()) {
+                System.out.println("  " + mismatch);
+            }
+            matching &= result.isMatching();
+        }
+        checker.appendResults(results, new File(GOLDEN_RESULTS_FILE_NAME));
+        System.out.println("Appended the results to " + GOLDEN_RESULTS_FILE_NAME);
+        return matching;
+    }
+
+    /**
+     * @return the mapping tables given like "house-style,iso-15919"
+     */
+    static List<MappingTable> loadMappingTables(String names) throws IOException
+    {
+        List<MappingTable> mappingTables = new ArrayList<>();
+        for (String name : names.split(",")) {
+            if (!name.trim().isEmpty()) {
+                mappingTables.add(loadMappingTable(name.trim()));
+            }
+        }
+        if (mappingTables.isEmpty()) {
+            throw new IllegalArgumentException("No mapping table given");
+        }
+        return mappingTables;
+    }
+
+    /**
+     * Loads the mapping table from the given file, or the built in one with the given name.
+     */
+    static MappingTable loadMappingTable(String name) throws IOException
+    {
+        File file = new File(name);
+        if (file.isFile()) {
+            return MappingTable.fromFile(file);
         }
+        return MappingTable.fromResource(name + ".mapping");
     }
 }
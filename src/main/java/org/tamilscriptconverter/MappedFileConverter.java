@@ -0,0 +1,166 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Converts very large files by memory mapping the source and decoding the text straight from the mapped buffer.
+ * The converted text is encoded into a direct buffer and written to the target channel. The target has the same
+ * content as the one written by {@link TamilScriptConverter#convertFile(File, File)} with the same charset.
+ *
+ * @since 1.0
+ */
+public class MappedFileConverter
+{
+    private static final int MAX_REGION_SIZE = 64 << 20;
+    private static final int CHAR_BUFFER_SIZE = 64 << 10;
+    private static Logger logger = LoggerFactory.getLogger(MappedFileConverter.class);
+
+    /**
+     * Converts the given UTF-8 source file to the given target.
+     *
+     * @return the number of lines converted
+     */
+    public static long convertFile(File source, File target) throws IOException
+    {
+        return convertFile(source, target, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converts the given source file to the given target, both using the given charset.
+     *
+     * @return the number of lines converted
+     */
+    public static long convertFile(File source, File target, Charset charset) throws IOException
+    {
+        return convertFile(source, target, charset, SongFormat.DEFAULT);
+    }
+
+    /**
+     * Converts the given source file to the given target, both using the given charset, writing its lines in the
+     * given format.
+     *
+     * @return the number of lines converted
+     */
+    public static long convertFile(File source, File target, Charset charset, SongFormat format)
+            throws IOException
+    {
+        return convertFile(source, target, charset, format, MAX_REGION_SIZE);
+    }
+
+    static long convertFile(File source, File target, Charset charset, SongFormat format, int maxRegionSize)
+            throws IOException
+    {
+        if (target.getParentFile() != null && !target.getParentFile().exists()) {
+            target.getParentFile().mkdirs();
+        }
+        logger.info("Preparing to convert Tamil script in the source {} to {}...", source.getName(), target);
+        long startTime = System.nanoTime();
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             ChannelWriter writer = new ChannelWriter(FileChannel.open(target.toPath(), StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), charset)) {
+            LineSplitter lines = new LineSplitter(format, writer);
+            CharsetDecoder decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+            long size = in.size();
+            long position = 0;
+            do {
+                MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(maxRegionSize, size - position));
+                boolean lastRegion = position + region.capacity() >= size;
+                while (decoder.decode(region, chars, lastRegion).isOverflow()) {
+                    lines.split(chars);
+                }
+                lines.split(chars);
+                //the bytes of a char split between two regions are mapped again with the next region
+                position += region.position();
+                if (lastRegion) {
+                    while (decoder.flush(chars).isOverflow()) {
+                        lines.split(chars);
+                    }
+                    lines.split(chars);
+                    break;
+                }
+            } while (true);
+            lines.finish();
+            logger.info("Finished converting {}", source);
+            ConversionMetrics.GLOBAL.addLines(lines.lineCount);
+            ConversionMetrics.GLOBAL.addFile(size, System.nanoTime() - startTime);
+            return lines.lineCount;
+        }
+    }
+
+    /**
+     * Splits the decoded chars into lines the way {@link java.io.BufferedReader#readLine()} does and writes the
+     * converted lines.
+     */
+    private static class LineSplitter
+    {
+        private final StringBuilder line = new StringBuilder();
+        private final SongFormat format;
+        private final ChannelWriter writer;
+        private boolean skipLineFeed;
+        private long lineCount;
+
+        LineSplitter(SongFormat format, ChannelWriter writer)
+        {
+            this.format = format;
+            this.writer = writer;
+        }
+
+        void split(CharBuffer chars) throws IOException
+        {
+            chars.flip();
+            char[] array = chars.array();
+            int start = chars.arrayOffset() + chars.position();
+            int end = chars.arrayOffset() + chars.limit();
+            int lineStart = start;
+            for (int i = start; i < end; i++) {
+                char c = array[i];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        lineStart = i + 1;
+                        continue;
+                    }
+                }
+                if (c == '\n' || c == '\r') {
+                    line.append(array, lineStart, i - lineStart);
+                    writeLine();
+                    skipLineFeed = c == '\r';
+                    lineStart = i + 1;
+                }
+            }
+            line.append(array, lineStart, end - lineStart);
+            chars.clear();
+        }
+
+        void finish() throws IOException
+        {
+            if (line.length() > 0) {
+                writeLine();
+            }
+        }
+
+        private void writeLine() throws IOException
+        {
+            format.writeLine(line.toString(), writer);
+            line.setLength(0);
+            lineCount++;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package org.tamilscriptconverter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The romanisation of the Tamil graphemes, loaded from a mapping file (see house-style.mapping for the format) and
+ * compiled into flat lookup tables indexed by the offset of the chars in the Tamil unicode block. A mapping table
+ * can't be modified once loaded, so it can be shared by several threads.
+ *
+ * @since 1.0
+ */
+public final class MappingTable
+{
+    static final char TAMIL_BLOCK_START = '\u0b80';
+    static final int TAMIL_BLOCK_SIZE = 128;
+    private static final boolean[] SIGNS_AFTER_CHAR = signsAfterChar();
+    public static final MappingTable HOUSE_STYLE = fromResource("house-style.mapping");
+    public static final MappingTable ISO_15919 = fromResource("iso-15919.mapping");
+    private static final String TRIM_DIRECTIVE = "%trim";
+    private final String name;
+    private final List<String> lines;
+    private volatile String version;
+    private final String[] letters = new String[TAMIL_BLOCK_SIZE];
+    private final String[] deadConsonants = new String[TAMIL_BLOCK_SIZE];
+    private final String[] vowelSignSuffixes = new String[TAMIL_BLOCK_SIZE];
+    private final boolean[] suffixesAfterLetter = new boolean[TAMIL_BLOCK_SIZE];
+    private final String[][] syllables = new String[TAMIL_BLOCK_SIZE][];
+    private final ContextRule[][] contextRules = new ContextRule[TAMIL_BLOCK_SIZE][];
+    private final char trimmedChar;
+    private final List<String> trimmedCharFollowers;
+
+    private MappingTable(String name, List<String> lines)
+    {
+        this.name = name;
+        this.lines = lines;
+        String[] trimDirective = null;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = split(line);
+            try {
+                if (TRIM_DIRECTIVE.equals(fields[0])) {
+                    if (fields.length < 3 || fields[1].length() != 1) {
+                        throw new IllegalArgumentException("Expected: %trim <char> <grapheme>...");
+                    }
+                    trimDirective = fields;
+                } else {
+                    parse(fields);
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException(name + ", line " + (i + 1) + ": " + ex.getMessage(), ex);
+            }
+        }
+        if (trimDirective != null) {
+            trimmedChar = trimDirective[1].charAt(0);
+            trimmedCharFollowers = Collections.unmodifiableList(
+                    Arrays.asList(trimDirective).subList(2, trimDirective.length));
+        } else {
+            trimmedChar = 0;
+            trimmedCharFollowers = Collections.emptyList();
+        }
+        compile();
+    }
+
+    /**
+     * Loads the mapping table with the given name from the resources of this package.
+     */
+    public static MappingTable fromResource(String name)
+    {
+        InputStream in = MappingTable.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IllegalArgumentException("Mapping table " + name + " doesn't exist");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return load(name, reader);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to load the mapping table " + name, ex);
+        }
+    }
+
+    /**
+     * Loads the mapping table from the given UTF-8 file.
+     */
+    public static MappingTable fromFile(File file) throws IOException
+    {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return load(file.getName(), reader);
+        }
+    }
+
+    /**
+     * Loads a mapping table from the given reader.
+     *
+     * @throws IllegalArgumentException if a line of the mapping table is invalid
+     */
+    public static MappingTable load(String name, Reader reader) throws IOException
+    {
+        List<String> lines = new ArrayList<>();
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            lines.add(line);
+        }
+        return new MappingTable(name, lines);
+    }
+
+    private void parse(String[] fields)
+    {
+        if (fields.length < 2 || fields.length > 3) {
+            throw new IllegalArgumentException("Expected: <grapheme> <romanisation> [<condition>]");
+        }
+        String grapheme = fields[0];
+        String romanisation = fields[1];
+        if (fields.length > 2 && grapheme.length() != 2) {
+            throw new IllegalArgumentException("Only a consonant with a vowel sign can have a condition");
+        }
+        int first = index(grapheme.charAt(0));
+        if (grapheme.length() == 1 && isVowelSign(grapheme.charAt(0))) {
+            boolean afterLetter = romanisation.startsWith("+");
+            vowelSignSuffixes[first] = afterLetter ? romanisation.substring(1) : romanisation;
+            suffixesAfterLetter[first] = afterLetter;
+        } else if (grapheme.length() == 1) {
+            letters[first] = romanisation;
+        } else if (grapheme.length() == 2 && grapheme.charAt(1) == TamilScriptConverter.PULLI) {
+            deadConsonants[first] = romanisation;
+        } else if (grapheme.length() == 2 && isVowelSign(grapheme.charAt(1))) {
+            if (contextRules[first] == null) {
+                contextRules[first] = new ContextRule[TAMIL_BLOCK_SIZE];
+            }
+            contextRules[first][index(grapheme.charAt(1))] = new ContextRule(romanisation,
+                    fields.length > 2 ? fields[2] : null);
+        } else {
+            throw new IllegalArgumentException("Unexpected grapheme " + grapheme);
+        }
+    }
+
+    private static boolean[] signsAfterChar()
+    {
+        boolean[] signs = new boolean[TAMIL_BLOCK_SIZE];
+        char[] chars = {TamilScriptConverter.VOWEL_SIGN_AA, TamilScriptConverter.VOWEL_SIGN_I,
+                TamilScriptConverter.VOWEL_SIGN_II, TamilScriptConverter.VOWEL_SIGN_U, TamilScriptConverter.VOWEL_SIGN_UU,
+                TamilScriptConverter.VOWEL_SIGN_E, TamilScriptConverter.VOWEL_SIGN_EE, TamilScriptConverter.VOWEL_SIGN_AI,
+                TamilScriptConverter.VOWEL_SIGN_O, TamilScriptConverter.VOWEL_SIGN_OO, TamilScriptConverter.VOWEL_SIGN_AU,
+                TamilScriptConverter.PULLI};
+        for (char c : chars) {
+            signs[c - TAMIL_BLOCK_START] = true;
+        }
+        return signs;
+    }
+
+    /**
+     * @return whether the given char is a vowel sign or pulli, which belongs to the grapheme of the char before it
+     */
+    static boolean isSignAfterChar(char tamilChar)
+    {
+        int index = tamilChar - TAMIL_BLOCK_START;
+        return index >= 0 && index < TAMIL_BLOCK_SIZE && SIGNS_AFTER_CHAR[index];
+    }
+
+    /**
+     * @return whether the given char belongs to the Tamil unicode block
+     */
+    static boolean isTamil(char c)
+    {
+        return c >= TAMIL_BLOCK_START && c < TAMIL_BLOCK_START + TAMIL_BLOCK_SIZE;
+    }
+
+    static boolean isVowelSign(char tamilChar)
+    {
+        return tamilChar != TamilScriptConverter.PULLI && isSignAfterChar(tamilChar);
+    }
+
+    private static int index(char tamilChar)
+    {
+        int index = tamilChar - TAMIL_BLOCK_START;
+        if (index < 0 || index >= TAMIL_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Not a Tamil char: " + tamilChar);
+        }
+        return index;
+    }
+
+    /**
+     * Combines the consonants with the vowel signs, so that converting a grapheme is a single lookup. The
+     * overrides without condition are applied here, the others are left to {@link #getSyllable(char, char, char,
+     * boolean)}.
+     */
+    private void compile()
+    {
+        for (int base = 0; base < TAMIL_BLOCK_SIZE; base++) {
+            syllables[base] = new String[TAMIL_BLOCK_SIZE];
+            for (int sign = 0; sign < TAMIL_BLOCK_SIZE; sign++) {
+                ContextRule rule = contextRules[base] != null ? contextRules[base][sign] : null;
+                if (rule != null && rule.isUnconditional()) {
+                    syllables[base][sign] = rule.romanisation;
+                    contextRules[base][sign] = null;
+                } else if (vowelSignSuffixes[sign] != null) {
+                    syllables[base][sign] = combine((char) (TAMIL_BLOCK_START + base),
+                            (char) (TAMIL_BLOCK_START + sign));
+                }
+            }
+        }
+    }
+
+    private String combine(char base, char vowelSign)
+    {
+        int sign = vowelSign - TAMIL_BLOCK_START;
+        if (suffixesAfterLetter[sign]) {
+            String letter = getLetter(base);
+            return (letter != null ? letter : String.valueOf(base)) + vowelSignSuffixes[sign];
+        }
+        String deadConsonant = getDeadConsonant(base);
+        return (deadConsonant != null ? deadConsonant : base + "" + TamilScriptConverter.PULLI) +
+                vowelSignSuffixes[sign];
+    }
+
+    /**
+     * @return the romanisation of the given vowel or consonant, or null if it doesn't have one
+     */
+    public String getLetter(char tamilChar)
+    {
+        int index = tamilChar - TAMIL_BLOCK_START;
+        return index >= 0 && index < TAMIL_BLOCK_SIZE ? letters[index] : null;
+    }
+
+    /**
+     * @return the romanisation of the given consonant with pulli, or null if it doesn't have one
+     */
+    public String getDeadConsonant(char tamilChar)
+    {
+        int index = tamilChar - TAMIL_BLOCK_START;
+        return index >= 0 && index < TAMIL_BLOCK_SIZE ? deadConsonants[index] : null;
+    }
+
+    /**
+     * @return whether the given vowel sign has a romanisation
+     */
+    public boolean hasVowelSign(char vowelSign)
+    {
+        return vowelSignSuffixes[vowelSign - TAMIL_BLOCK_START] != null;
+    }
+
+    /**
+     * Returns the romanisation of the given char followed by the given vowel sign, which must have a romanisation.
+     *
+     * @param previousChar  the first char of the previous grapheme
+     * @param previousBlank whether the previous grapheme is blank, or there isn't one
+     */
+    public String getSyllable(char base, char vowelSign, char previousChar, boolean previousBlank)
+    {
+        int index = base - TAMIL_BLOCK_START;
+        int sign = vowelSign - TAMIL_BLOCK_START;
+        if (index < 0 || index >= TAMIL_BLOCK_SIZE) {
+            return combine(base, vowelSign);
+        }
+        ContextRule[] rules = contextRules[index];
+        if (rules != null && rules[sign] != null && rules[sign].matches(previousChar, previousBlank)) {
+            return rules[sign].romanisation;
+        }
+        return syllables[index][sign];
+    }
+
+    /**
+     * Returns the number of chars to remove from the start of the given text, which is 1 if the text starts with
+     * the char to trim followed by one of its followers and something else. A sign starting the text which isn't
+     * followed by another sign is dropped by the conversion, so it is removed as well when the char to trim
+     * follows it.
+     */
+    public int countLeadingCharsToTrim(CharSequence text)
+    {
+        int length = text.length();
+        int start = length > 1 && isSignAfterChar(text.charAt(0)) && !isSignAfterChar(text.charAt(1)) ? 1 : 0;
+        if (length < start + 3 || text.charAt(start) != trimmedChar || trimmedCharFollowers.isEmpty()) {
+            return 0;
+        }
+        int followerLength = isSignAfterChar(text.charAt(start + 2)) ? 2 : 1;
+        if (length <= start + 1 + followerLength) {
+            return 0;
+        }
+        for (String follower : trimmedCharFollowers) {
+            if (follower.length() == followerLength && follower.charAt(0) == text.charAt(start + 1) &&
+                    (followerLength == 1 || follower.charAt(1) == text.charAt(start + 2))) {
+                return start + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the distinct chars excluded by the conditions of the context rules, which are the only previous chars
+     * apart from the blanks making a difference to the romanisation of a grapheme
+     */
+    char[] getContextChars()
+    {
+        StringBuilder contextChars = new StringBuilder();
+        for (ContextRule[] rules : contextRules) {
+            for (int sign = 0; rules != null && sign < TAMIL_BLOCK_SIZE; sign++) {
+                if (rules[sign] != null && rules[sign].excludedPreviousChar != 0 &&
+                        contextChars.indexOf(String.valueOf(rules[sign].excludedPreviousChar)) < 0) {
+                    contextChars.append(rules[sign].excludedPreviousChar);
+                }
+            }
+        }
+        return contextChars.toString().toCharArray();
+    }
+
+    /**
+     * @return the char removed from the start of the text by {@link #countLeadingCharsToTrim(CharSequence)}, or 0
+     */
+    char getTrimmedChar()
+    {
+        return trimmedChar;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return a digest of the content of the mapping table, which changes whenever the mapping table is modified
+     */
+    public String getVersion()
+    {
+        //digested the first time it is needed, since loading the security providers slows down the startup
+        String version = this.version;
+        if (version == null) {
+            version = digest(lines);
+            this.version = version;
+        }
+        return version;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+
+    /**
+     * Same as splitting the given trimmed line with "\\s+", without compiling a regular expression for each line.
+     */
+    private static String[] split(String line)
+    {
+        List<String> fields = new ArrayList<>(3);
+        int start = 0;
+        while (start < line.length()) {
+            int end = start;
+            while (end < line.length() && !isWhitespace(line.charAt(end))) {
+                end++;
+            }
+            fields.add(line.substring(start, end));
+            start = end;
+            while (start < line.length() && isWhitespace(line.charAt(start))) {
+                start++;
+            }
+        }
+        return fields.toArray(new String[fields.size()]);
+    }
+
+    /**
+     * @return whether the given char is matched by "\\s", which only matches ASCII whitespace
+     */
+    private static boolean isWhitespace(char c)
+    {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    private static String digest(List<String> lines)
+    {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String line : lines) {
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not supported", ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes)
+    {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * The romanisation of a consonant with a vowel sign, depending on the previous grapheme.
+     */
+    private static final class ContextRule
+    {
+        private final String romanisation;
+        private final boolean previousBlank;
+        private final char excludedPreviousChar;
+
+        ContextRule(String romanisation, String condition)
+        {
+            this.romanisation = romanisation;
+            if (condition == null) {
+                previousBlank = false;
+                excludedPreviousChar = 0;
+            } else if ("^".equals(condition)) {
+                previousBlank = true;
+                excludedPreviousChar = 0;
+            } else if (condition.length() == 2 && condition.charAt(0) == '!' && isTamil(condition.charAt(1))) {
+                previousBlank = false;
+                excludedPreviousChar = condition.charAt(1);
+            } else {
+                throw new IllegalArgumentException("Unexpected condition " + condition);
+            }
+        }
+
+        boolean isUnconditional()
+        {
+            return !previousBlank && excludedPreviousChar == 0;
+        }
+
+        boolean matches(char previousChar, boolean previousBlank)
+        {
+            return (!this.previousBlank || previousBlank) &&
+                    (excludedPreviousChar == 0 || previousChar != excludedPreviousChar);
+        }
+    }
+}
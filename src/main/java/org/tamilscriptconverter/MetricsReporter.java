@@ -0,0 +1,77 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs the {@link ConversionMetrics} periodically along with the throughput since the previous report, to watch a
+ * large batch while it runs.
+ *
+ * @since 1.0
+ */
+public class MetricsReporter
+{
+    private static Logger logger = LoggerFactory.getLogger(MetricsReporter.class);
+    private final ConversionMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+    private long previousLineCount;
+    private long previousByteCount;
+    private long previousTime;
+
+    public MetricsReporter(ConversionMetrics metrics)
+    {
+        this.metrics = metrics;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public void start(long period, TimeUnit unit)
+    {
+        previousLineCount = metrics.getLineCount();
+        previousByteCount = metrics.getByteCount();
+        previousTime = System.nanoTime();
+        scheduler.scheduleAtFixedRate(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                report();
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops reporting, after logging a last report.
+     */
+    public void stop()
+    {
+        scheduler.shutdownNow();
+        report();
+    }
+
+    synchronized void report()
+    {
+        long time = System.nanoTime();
+        long lineCount = metrics.getLineCount();
+        long byteCount = metrics.getByteCount();
+        double seconds = Math.max(1, time - previousTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        logger.info("{} ({} lines/s, {} bytes/s)", metrics, Math.round((lineCount - previousLineCount) / seconds),
+                Math.round((byteCount - previousByteCount) / seconds));
+        previousLineCount = lineCount;
+        previousByteCount = byteCount;
+        previousTime = time;
+    }
+}
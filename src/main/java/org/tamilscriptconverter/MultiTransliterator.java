@@ -0,0 +1,103 @@
+package org.tamilscriptconverter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Converts Tamil text to several romanisations at once, for example the house style one, the one normalised for
+ * searching and ISO 15919. The text is scanned once, the class of each char being found once and fed to the
+ * automaton of each {@link Transliterator}, so that each extra romanisation only costs its table lookups and output
+ * rather than a whole conversion. Each romanisation is the same as the one given by its transliterator.
+ * <p>
+ * Like a transliterator, it doesn't have any mutable state of its own, so a single instance can be shared by any
+ * number of threads.
+ *
+ * @since 1.0
+ */
+public final class MultiTransliterator
+{
+    private final List<Transliterator> transliterators;
+    private final GraphemeAutomaton[] automata;
+
+    public MultiTransliterator(List<Transliterator> transliterators)
+    {
+        if (transliterators.isEmpty()) {
+            throw new IllegalArgumentException("No transliterator to convert with");
+        }
+        this.transliterators = Collections.unmodifiableList(new ArrayList<>(transliterators));
+        this.automata = new GraphemeAutomaton[transliterators.size()];
+        for (int i = 0; i < automata.length; i++) {
+            automata[i] = this.transliterators.get(i).getAutomaton();
+        }
+    }
+
+    public List<Transliterator> getTransliterators()
+    {
+        return transliterators;
+    }
+
+    /**
+     * @return the number of romanisations given for each text
+     */
+    public int getSchemeCount()
+    {
+        return automata.length;
+    }
+
+    /**
+     * @return the romanisations of the given text, in the order of the transliterators
+     */
+    public String[] convert(String text)
+    {
+        StringBuilder[] convertedTexts = new StringBuilder[automata.length];
+        for (int i = 0; i < convertedTexts.length; i++) {
+            convertedTexts[i] = new StringBuilder(text.length() + 16);
+        }
+        convert(text, convertedTexts);
+        String[] romanisations = new String[convertedTexts.length];
+        for (int i = 0; i < romanisations.length; i++) {
+            romanisations[i] = convertedTexts[i].toString();
+        }
+        return romanisations;
+    }
+
+    /**
+     * Converts the given text and appends each romanisation to the builder at the same index as its transliterator.
+     */
+    public void convert(CharSequence text, StringBuilder[] outs)
+    {
+        try {
+            convert(text, (Appendable[]) outs);
+        } catch (IOException ex) {
+            throw new IllegalStateException("StringBuilder doesn't throw IOException", ex);
+        }
+    }
+
+    /**
+     * Converts the given text and appends each romanisation to the output at the same index as its transliterator,
+     * a writer or a builder of its own.
+     */
+    public void convert(CharSequence text, Appendable[] outs) throws IOException
+    {
+        if (outs.length != automata.length) {
+            throw new IllegalArgumentException("Expected " + automata.length + " outputs but got " + outs.length);
+        }
+        if (automata.length == 1) {
+            transliterators.get(0).convert(text, outs[0]);
+            return;
+        }
+        byte[] charClasses = GraphemeAutomaton.getCharClasses(text);
+        for (int i = 0; i < automata.length; i++) {
+            int from = transliterators.get(i).getMappingTable().countLeadingCharsToTrim(text);
+            automata[i].convert(text, charClasses, from, outs[i], i == 0);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MultiTransliterator" + transliterators;
+    }
+}
@@ -0,0 +1,305 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Converts a single large file, or text, using several threads. The text is split into chunks ending at a line feed,
+ * or at a carriage return which isn't followed by one, which are converted by a fork join pool and put back together
+ * in order, so the result is the same as the one of {@link TamilScriptConverter#convertFile(File, File)}: each line
+ * only depends on itself.
+ * <p>
+ * A file is read and written by the calling thread while a few chunks per thread are converted, so a file of any
+ * size can be converted holding only these chunks in memory.
+ *
+ * @since 1.0
+ */
+public class ParallelFileConverter
+{
+    static final int CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static Logger logger = LoggerFactory.getLogger(ParallelFileConverter.class);
+    private final int threadCount;
+    private int chunkSize = CHUNK_SIZE;
+    private SongFormat songFormat = SongFormat.DEFAULT;
+
+    public ParallelFileConverter(int threadCount)
+    {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count should be at least 1 but was " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    public void setSongFormat(SongFormat songFormat)
+    {
+        this.songFormat = songFormat;
+    }
+
+    /**
+     * Sets the size of the chunks, in chars or bytes, a longer line making a longer chunk.
+     */
+    void setChunkSize(int chunkSize)
+    {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Converts the lines of the given text, writing each of them followed by its converted text.
+     *
+     * @return the converted text, as it would be written to a converted file
+     */
+    public String convert(final String text)
+    {
+        List<Integer> chunkEnds = new ArrayList<>();
+        int end = 0;
+        while (end < text.length()) {
+            end = lineEnd(text, Math.min(end + chunkSize, text.length()) - 1);
+            chunkEnds.add(end);
+        }
+        final String[] convertedChunks = new String[chunkEnds.size()];
+        final int[] ends = new int[chunkEnds.size()];
+        for (int i = 0; i < ends.length; i++) {
+            ends[i] = chunkEnds.get(i);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            pool.invoke(new ConvertChunks(text, ends, convertedChunks, 0, ends.length));
+        } finally {
+            pool.shutdownNow();
+        }
+        StringBuilder convertedText = new StringBuilder(text.length() * 3);
+        for (String convertedChunk : convertedChunks) {
+            convertedText.append(convertedChunk);
+        }
+        return convertedText.toString();
+    }
+
+    /**
+     * Converts the given source file to the given target, both using the given charset, in which a line feed and a
+     * carriage return must be single bytes, like UTF-8 or ISO-8859-1.
+     *
+     * @return the number of lines converted
+     */
+    public long convertFile(File source, File target, final Charset charset) throws IOException
+    {
+        if (!Arrays.equals("\r\n".getBytes(charset), new byte[]{'\r', '\n'})) {
+            throw new IllegalArgumentException("The lines of a " + charset + " file can't be found in its bytes");
+        }
+        if (target.getParentFile() != null && !target.getParentFile().exists()) {
+            target.getParentFile().mkdirs();
+        }
+        logger.info("Preparing to convert Tamil script in the source {} to {} using {} threads...", source.getName(),
+                target, threadCount);
+        long startTime = System.nanoTime();
+        long lineCount = 0;
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try (InputStream in = new FileInputStream(source);
+             OutputStream out = new FileOutputStream(target)) {
+            Queue<ForkJoinTask<ConvertedChunk>> pending = new ArrayDeque<>();
+            byte[] remainder = new byte[0];
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                byte[] buffer = Arrays.copyOf(remainder, remainder.length + chunkSize);
+                int length = remainder.length;
+                int count;
+                while (length < buffer.length && (count = in.read(buffer, length, buffer.length - length)) >= 0) {
+                    length += count;
+                }
+                endOfInput = length < buffer.length;
+                //the remainder may end with a carriage return, which is a line end if no line feed was read after it
+                int end = endOfInput ? length : lastLineEnd(buffer, Math.max(0, remainder.length - 1), length);
+                remainder = Arrays.copyOfRange(buffer, end, length);
+                if (end == 0) {
+                    continue;
+                }
+                pending.add(pool.submit(new ConvertBytes(buffer, end, charset)));
+                if (pending.size() >= threadCount * CHUNKS_PER_THREAD) {
+                    lineCount += write(pending.remove(), out);
+                }
+            }
+            while (!pending.isEmpty()) {
+                lineCount += write(pending.remove(), out);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        logger.info("Finished converting {}", source);
+        ConversionMetrics.GLOBAL.addLines(lineCount);
+        ConversionMetrics.GLOBAL.addFile(source.length(), System.nanoTime() - startTime);
+        return lineCount;
+    }
+
+    /**
+     * @return the index after the first line feed, or carriage return not followed by a line feed, starting from the
+     * given index, or the length of the text if there isn't any
+     */
+    private static int lineEnd(String text, int from)
+    {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) != '\n')) {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+
+    /**
+     * @return the index after the last line feed, or carriage return followed by something else than a line feed,
+     * between the given indexes, or 0 if there isn't any. A carriage return ending the buffer isn't a line end yet,
+     * since a line feed may be read after it.
+     */
+    private static int lastLineEnd(byte[] buffer, int from, int to)
+    {
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer[i] == '\n' || (buffer[i] == '\r' && i + 1 < to && buffer[i + 1] != '\n')) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static long write(ForkJoinTask<ConvertedChunk> task, OutputStream out) throws IOException
+    {
+        try {
+            ConvertedChunk chunk = task.get();
+            out.write(chunk.bytes);
+            return chunk.lineCount;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while converting the file", ex);
+        }
+    }
+
+    /**
+     * Writes the given lines followed by their converted text to the given writer.
+     *
+     * @return the number of lines written
+     */
+    private long convertLines(String lines, StringWriter writer)
+    {
+        long lineCount = 0;
+        try {
+            BufferedReader reader = new BufferedReader(new StringReader(lines));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                songFormat.writeLine(line, writer);
+                lineCount++;
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("StringWriter doesn't throw IOException", ex);
+        }
+        return lineCount;
+    }
+
+    /**
+     * Converts a range of the chunks of a text, splitting it in two until there is a single chunk left. Like the
+     * other tasks, it is only serializable because ForkJoinTask is, it is never serialized.
+     */
+    private class ConvertChunks extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private final String text;
+        private final int[] chunkEnds;
+        private final String[] convertedChunks;
+        private final int from;
+        private final int to;
+
+        ConvertChunks(String text, int[] chunkEnds, String[] convertedChunks, int from, int to)
+        {
+            this.text = text;
+            this.chunkEnds = chunkEnds;
+            this.convertedChunks = convertedChunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ConvertChunks(text, chunkEnds, convertedChunks, from, middle),
+                        new ConvertChunks(text, chunkEnds, convertedChunks, middle, to));
+            } else if (to > from) {
+                String chunk = text.substring(from > 0 ? chunkEnds[from - 1] : 0, chunkEnds[from]);
+                StringWriter writer = new StringWriter(chunk.length() * 3);
+                convertLines(chunk, writer);
+                convertedChunks[from] = writer.toString();
+            }
+        }
+    }
+
+    private class ConvertBytes extends RecursiveTask<ConvertedChunk>
+    {
+        private static final long serialVersionUID = 1L;
+        private final byte[] bytes;
+        private final int length;
+        private final transient Charset charset;
+
+        ConvertBytes(byte[] bytes, int length, Charset charset)
+        {
+            this.bytes = bytes;
+            this.length = length;
+            this.charset = charset;
+        }
+
+        @Override
+        protected ConvertedChunk compute()
+        {
+            if (StandardCharsets.UTF_8.equals(charset)) {
+                ByteArrayOutputStream convertedBytes = new ByteArrayOutputStream(length * 3);
+                try {
+                    long lineCount = new Utf8LineConverter(songFormat).convert(bytes, 0, length, convertedBytes);
+                    return new ConvertedChunk(convertedBytes.toByteArray(), lineCount);
+                } catch (IOException ex) {
+                    throw new IllegalStateException("ByteArrayOutputStream doesn't throw IOException", ex);
+                }
+            }
+            StringWriter writer = new StringWriter(length * 2);
+            long lineCount = convertLines(new String(bytes, 0, length, charset), writer);
+            return new ConvertedChunk(writer.toString().getBytes(charset), lineCount);
+        }
+    }
+
+    private static class ConvertedChunk
+    {
+        private final byte[] bytes;
+        private final long lineCount;
+
+        ConvertedChunk(byte[] bytes, long lineCount)
+        {
+            this.bytes = bytes;
+            this.lineCount = lineCount;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.tamilscriptconverter;
+
+/**
+ * The header at the start of a line which starts a section of a song, like the verse number in "1. foo" or the
+ * marker in "Chorus: foo".
+ *
+ * @since 1.0
+ */
+public class SectionHeader
+{
+    public static final String VERSE = "Verse";
+    private final String type;
+    private final String number;
+    private final int length;
+
+    public SectionHeader(String type, String number, int length)
+    {
+        this.type = type;
+        this.number = number;
+        this.length = length;
+    }
+
+    /**
+     * @return the type of the section, like "Verse" or "Chorus"
+     */
+    public String getType()
+    {
+        return type;
+    }
+
+    public String getNumber()
+    {
+        return number;
+    }
+
+    /**
+     * @return the number of chars of the header at the start of the line
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    /**
+     * @return the tag written before the section in a converted file, like "---[Verse:1]---"
+     */
+    public String getTag()
+    {
+        return "---[" + type + ":" + number + "]---";
+    }
+
+    @Override
+    public String toString()
+    {
+        return getTag();
+    }
+}
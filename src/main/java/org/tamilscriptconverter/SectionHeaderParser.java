@@ -0,0 +1,288 @@
+package org.tamilscriptconverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the section header at the start of a line in a single pass, without regular expressions.
+ * <p>
+ * A line starting with one or two digits followed by at least one more char starts a verse, the digits and the
+ * char after them being the header (like "1." in "1. foo"). A line starting with one of the configured markers,
+ * optionally followed by a number and one of ".:)", starts a section of the type of that marker (like "Chorus:"
+ * in "Chorus: foo"). The markers are matched ignoring the case.
+ *
+ * @since 1.0
+ */
+public class SectionHeaderParser
+{
+    public static final SectionHeaderParser DEFAULT = new SectionHeaderParser(Collections.<String, String>emptyMap());
+    private final List<Map.Entry<String, String>> markers;
+
+    /**
+     * @param markers the section types by their markers, like "Chorus" to "Chorus" or "பல்லவி" to "Chorus"
+     */
+    public SectionHeaderParser(Map<String, String> markers)
+    {
+        List<Map.Entry<String, String>> entries = new ArrayList<>(new LinkedHashMap<>(markers).entrySet());
+        //the longest marker wins when several of them match
+        Collections.sort(entries, new Comparator<Map.Entry<String, String>>()
+        {
+            @Override
+            public int compare(Map.Entry<String, String> entry1, Map.Entry<String, String> entry2)
+            {
+                return entry2.getKey().length() - entry1.getKey().length();
+            }
+        });
+        this.markers = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Creates a parser from markers given like "Chorus,Bridge,பல்லவி=Chorus", a marker without a type being its
+     * own type.
+     */
+    public static SectionHeaderParser valueOf(String markers)
+    {
+        Map<String, String> types = new LinkedHashMap<>();
+        for (String marker : markers.split(",")) {
+            String[] parts = marker.split("=", 2);
+            if (!parts[0].trim().isEmpty()) {
+                types.put(parts[0].trim(), parts.length > 1 ? parts[1].trim() : parts[0].trim());
+            }
+        }
+        return new SectionHeaderParser(types);
+    }
+
+    /**
+     * @return the header at the start of the given line, or null if the line doesn't start a section
+     */
+    public SectionHeader parse(CharSequence line)
+    {
+        if (startsWithNumber(line)) {
+            int length = getVerseNumberLength(line);
+            return new SectionHeader(SectionHeader.VERSE, getVerseNumber(line, length), length);
+        }
+        for (Map.Entry<String, String> marker : markers) {
+            SectionHeader header = parseMarker(line, marker.getKey(), marker.getValue());
+            if (header != null) {
+                return header;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Formats a line of Tamil text the way it is written in a converted file.
+     */
+    public String formatTamilText(String text)
+    {
+        return TamilScriptConverter.isBlank(text) ? text : formatTamilText(text, parse(text));
+    }
+
+    /**
+     * @param header the header found at the start of the given line, or null if it doesn't start a section
+     */
+    String formatTamilText(String text, SectionHeader header)
+    {
+        if (TamilScriptConverter.isBlank(text)) {
+            return text;
+        }
+        if (header != null) {
+            return header.getTag() + "\r\n" + TamilScriptConverter.getTextWithFormattingTag(text);
+        }
+        return TamilScriptConverter.getTextWithFormattingTag(text);
+    }
+
+    /**
+     * Converts a line of Tamil text the way it is written in a converted file, without its section header. A verse
+     * number is removed from the romanisation of the line, while a marker is found in the line rather than in its
+     * romanisation, so that a Tamil marker like "பல்லவி" is removed as well.
+     */
+    public String formatConvertedText(String line, Transliterator transliterator)
+    {
+        return formatConvertedText(line, parse(line), transliterator);
+    }
+
+    /**
+     * @param header the header found at the start of the given line, or null if it doesn't start a section
+     */
+    String formatConvertedText(String line, SectionHeader header, Transliterator transliterator)
+    {
+        return trimAndCapitalise(removeConvertedHeader(line, header, transliterator.convert(line), transliterator));
+    }
+
+    /**
+     * Formats an already converted line the way it is written in a converted file, without its section header.
+     * The header is found in the romanisation, so only the headers whose markers are not changed by the
+     * romanisation are removed, see {@link #formatConvertedText(String, Transliterator)}.
+     */
+    public String formatConvertedText(String text)
+    {
+        SectionHeader header = parse(text);
+        return trimAndCapitalise(header != null ? text.substring(header.getLength()) : text);
+    }
+
+    /**
+     * @param header        the header found at the start of the given line, or null if it doesn't start a section
+     * @param convertedText the romanisation of the line
+     * @return the romanisation of the line after its header, or after the verse number it starts with
+     */
+    static String removeConvertedHeader(String line, SectionHeader header, String convertedText,
+                                        Transliterator transliterator)
+    {
+        if (header == null || startsWithNumber(line)) {
+            //the digits are kept by the romanisation, so the verse number is found in it, like it always has been,
+            //even when the chars dropped by the romanisation come before it
+            return startsWithNumber(convertedText) ? convertedText.substring(getVerseNumberLength(convertedText))
+                    : convertedText;
+        }
+        String convertedHeader = transliterator.convert(line.substring(0, header.getLength()));
+        if (convertedText.startsWith(convertedHeader)) {
+            return convertedText.substring(convertedHeader.length());
+        }
+        //the end of the header is romanised differently when it is followed by the rest of the line
+        return transliterator.convert(line.substring(header.getLength()));
+    }
+
+    static String trimAndCapitalise(String text)
+    {
+        String trimmedText = text.trim();
+        if (trimmedText.isEmpty() || Character.isTitleCase(trimmedText.charAt(0))) {
+            return trimmedText;
+        }
+        return Character.toTitleCase(trimmedText.charAt(0)) + trimmedText.substring(1);
+    }
+
+    /**
+     * Same as matching "^[0-9]{1,2}.+", a digit followed by at least one char which isn't a line terminator.
+     */
+    static boolean startsWithNumber(CharSequence text)
+    {
+        int length = text.length();
+        if (length < 2 || !isDigit(text.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            if (isLineTerminator(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the length of the text found by "^[0-9]{1,2}.", or 0 if it isn't found. Like ".", the char after the
+     * digits is a whole code point, so a surrogate pair is not split
+     */
+    static int getVerseNumberLength(CharSequence text)
+    {
+        int length = text.length();
+        if (length < 2 || !isDigit(text.charAt(0))) {
+            return 0;
+        }
+        if (length > 2 && isDigit(text.charAt(1)) && !isLineTerminator(text.charAt(2))) {
+            return 3 + getLowSurrogateCount(text, 2);
+        }
+        return isLineTerminator(text.charAt(1)) ? 0 : 2 + getLowSurrogateCount(text, 1);
+    }
+
+    /**
+     * @return 1 if the char at the given index is the high surrogate of a surrogate pair, otherwise 0
+     */
+    private static int getLowSurrogateCount(CharSequence text, int index)
+    {
+        return index + 1 < text.length() && Character.isHighSurrogate(text.charAt(index)) &&
+                Character.isLowSurrogate(text.charAt(index + 1)) ? 1 : 0;
+    }
+
+    static String getVerseNumber(CharSequence text, int length)
+    {
+        String number = text.subSequence(0, length).toString();
+        return (number.endsWith(".") ? number.substring(0, number.length() - 1) : number).trim();
+    }
+
+    private static SectionHeader parseMarker(CharSequence line, String marker, String type)
+    {
+        int length = line.length();
+        int markerLength = marker.length();
+        if (length < markerLength) {
+            return null;
+        }
+        for (int i = 0; i < markerLength; i++) {
+            if (!equalsIgnoreCase(line.charAt(i), marker.charAt(i))) {
+                return null;
+            }
+        }
+        int i = markerLength;
+        if (i < length && Character.isLetter(line.charAt(i))) {
+            return null;
+        }
+        while (i < length && (line.charAt(i) == ' ' || line.charAt(i) == '\t')) {
+            i++;
+        }
+        int numberStart = i;
+        while (i < length && isDigit(line.charAt(i))) {
+            i++;
+        }
+        String number = i > numberStart ? line.subSequence(numberStart, i).toString() : "1";
+        if (i < length && (line.charAt(i) == '.' || line.charAt(i) == ':' || line.charAt(i) == ')')) {
+            i++;
+        }
+        return new SectionHeader(type, number, i);
+    }
+
+    /**
+     * @return whether a line starting with the given char may start a section, so that the lines which can't are
+     * told apart without looking at the rest of them
+     */
+    boolean mayStartSection(char firstChar)
+    {
+        if (isDigit(firstChar)) {
+            return true;
+        }
+        for (Map.Entry<String, String> marker : markers) {
+            if (marker.getKey().isEmpty() || equalsIgnoreCase(firstChar, marker.getKey().charAt(0))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equalsIgnoreCase(char c1, char c2)
+    {
+        return c1 == c2 || Character.toUpperCase(c1) == Character.toUpperCase(c2)
+                || Character.toLowerCase(c1) == Character.toLowerCase(c2);
+    }
+
+    private static boolean isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return whether the char isn't matched by "." in a regular expression
+     */
+    private static boolean isLineTerminator(char c)
+    {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * @return the markers like they are given to {@link #valueOf(String)}
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> marker : markers) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(marker.getKey()).append('=').append(marker.getValue());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,242 @@
+package org.tamilscriptconverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the songs of a bundle written by {@link SongBundleWriter}. The bundle is memory mapped and a song is only
+ * decoded when it is asked for, using the indexes at the end of the bundle, so opening a bundle is immediate
+ * whatever its size. A bundle can't be modified, so it can be shared by several threads.
+ *
+ * @since 1.0
+ */
+public final class SongBundle
+{
+    private final ByteBuffer buffer;
+    private final int songCount;
+    private final int textCount;
+    private final int textIndexOffset;
+    private final int songIndexOffset;
+
+    private SongBundle(ByteBuffer buffer) throws IOException
+    {
+        if (buffer.capacity() < SongBundleWriter.HEADER_SIZE || buffer.getInt(0) != SongBundleWriter.MAGIC) {
+            throw new IOException("Not a song bundle");
+        }
+        int formatVersion = buffer.getInt(4);
+        if (formatVersion != SongBundleWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported song bundle version " + formatVersion);
+        }
+        this.buffer = buffer;
+        this.songCount = buffer.getInt(8);
+        this.textCount = buffer.getInt(12);
+        this.textIndexOffset = buffer.getInt(16);
+        this.songIndexOffset = buffer.getInt(20);
+        if (songIndexOffset + 4L * songCount > buffer.capacity()) {
+            throw new IOException("The song bundle is truncated");
+        }
+    }
+
+    /**
+     * Memory maps the given bundle.
+     *
+     * @throws IOException if the file isn't a song bundle
+     */
+    public static SongBundle open(File file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new SongBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a bundle from the given bytes, which must not be modified afterwards.
+     */
+    public static SongBundle wrap(byte[] bytes) throws IOException
+    {
+        return new SongBundle(ByteBuffer.wrap(bytes));
+    }
+
+    public int getSongCount()
+    {
+        return songCount;
+    }
+
+    public String getSongName(int index)
+    {
+        ByteBuffer song = buffer.duplicate();
+        song.position(getSongOffset(index));
+        return getText(readNumber(song));
+    }
+
+    /**
+     * @return the index of the song with the given name, or -1 if there isn't any
+     */
+    public int indexOf(String name)
+    {
+        for (int i = 0; i < songCount; i++) {
+            if (getSongName(i).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes the song with the given index, without reading the other songs.
+     */
+    public Song getSong(int index)
+    {
+        ByteBuffer song = buffer.duplicate();
+        song.position(getSongOffset(index));
+        String name = getText(readNumber(song));
+        int lineCount = readNumber(song);
+        List<Line> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            String text = getText(readNumber(song));
+            int convertedTextId = readNumber(song);
+            int sectionTypeId = readNumber(song);
+            SectionHeader header = null;
+            if (sectionTypeId > 0) {
+                header = new SectionHeader(getText(sectionTypeId - 1), getText(readNumber(song)), readNumber(song));
+            }
+            lines.add(new Line(text, convertedTextId > 0 ? getText(convertedTextId - 1) : null, header));
+        }
+        return new Song(name, lines);
+    }
+
+    private int getSongOffset(int index)
+    {
+        if (index < 0 || index >= songCount) {
+            throw new IndexOutOfBoundsException("Song " + index + " out of " + songCount);
+        }
+        return buffer.getInt(songIndexOffset + 4 * index);
+    }
+
+    private String getText(int id)
+    {
+        if (id < 0 || id >= textCount) {
+            throw new IllegalStateException("Text " + id + " out of " + textCount + ", the bundle is corrupted");
+        }
+        ByteBuffer text = buffer.duplicate();
+        text.position(buffer.getInt(textIndexOffset + 4 * id));
+        byte[] bytes = new byte[readNumber(text)];
+        text.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readNumber(ByteBuffer buffer)
+    {
+        int number = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = buffer.get() & 0xff;
+            number |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return number;
+            }
+        }
+        throw new IllegalStateException("Invalid number at " + buffer.position() + ", the bundle is corrupted");
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SongBundle[" + songCount + " songs]";
+    }
+
+    /**
+     * A song read from a bundle.
+     */
+    public static final class Song
+    {
+        private final String name;
+        private final List<Line> lines;
+
+        Song(String name, List<Line> lines)
+        {
+            this.name = name;
+            this.lines = Collections.unmodifiableList(lines);
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public List<Line> getLines()
+        {
+            return lines;
+        }
+
+        /**
+         * Writes the song the way it is written in a converted file.
+         */
+        public void write(Writer writer) throws IOException
+        {
+            for (Line line : lines) {
+                if (line.convertedText == null) {
+                    writer.write(line.text);
+                    writer.write("\r\n");
+                    continue;
+                }
+                if (line.sectionHeader != null) {
+                    writer.write(line.sectionHeader.getTag());
+                    writer.write("\r\n");
+                }
+                writer.write(TamilScriptConverter.getTextWithFormattingTag(line.text));
+                writer.write("\r\n");
+                writer.write(line.convertedText);
+                writer.write("\r\n");
+            }
+        }
+    }
+
+    /**
+     * A line of a song with its converted text.
+     */
+    public static final class Line
+    {
+        private final String text;
+        private final String convertedText;
+        private final SectionHeader sectionHeader;
+
+        Line(String text, String convertedText, SectionHeader sectionHeader)
+        {
+            this.text = text;
+            this.convertedText = convertedText;
+            this.sectionHeader = sectionHeader;
+        }
+
+        /**
+         * @return the line in Tamil script
+         */
+        public String getText()
+        {
+            return text;
+        }
+
+        /**
+         * @return the converted line without its section header, or null if the line is blank
+         */
+        public String getConvertedText()
+        {
+            return convertedText;
+        }
+
+        /**
+         * @return the header of the section started by the line, or null if it doesn't start one
+         */
+        public SectionHeader getSectionHeader()
+        {
+            return sectionHeader;
+        }
+    }
+}
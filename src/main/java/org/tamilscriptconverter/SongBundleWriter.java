@@ -0,0 +1,186 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts songs and writes them to a compact binary bundle read by {@link SongBundle}. Each line is stored with its
+ * converted text and its section header, rather than formatted the way it is written in a converted file, and each
+ * distinct text is stored once, so a refrain repeated in a song, or in several songs, doesn't take any more room.
+ * <p>
+ * The bundle starts with a header giving the number of songs and texts and the offsets of the indexes, followed by
+ * the texts, the index of the texts, the songs and the index of the songs. The indexes hold the 4 bytes offset of
+ * each text and song, so that any of them can be read without reading the others. The other numbers are written as
+ * variable length integers. A song is its name, its number of lines and, for each line, the ids of its text, of its
+ * converted text plus 1 (0 for a blank line) and of the type of its section header plus 1 (0 without a header),
+ * followed by the id of the number and the length of the header if it has one.
+ *
+ * @since 1.0
+ */
+public class SongBundleWriter
+{
+    static final int MAGIC = 0x54534342;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    private static Logger logger = LoggerFactory.getLogger(SongBundleWriter.class);
+    private final SongFormat songFormat;
+    private final Map<String, Integer> textIds = new HashMap<>();
+    private final List<String> texts = new ArrayList<>();
+    private final ByteArrayOutputStream songs = new ByteArrayOutputStream();
+    private final DataOutputStream songData = new DataOutputStream(songs);
+    private final List<Integer> songOffsets = new ArrayList<>();
+
+    public SongBundleWriter()
+    {
+        this(SongFormat.DEFAULT);
+    }
+
+    public SongBundleWriter(SongFormat songFormat)
+    {
+        this.songFormat = songFormat;
+    }
+
+    /**
+     * Adds the files of the given directory and its sub directories, read as UTF-8, naming the songs after the
+     * path of their file relative to the directory.
+     */
+    public SongBundleWriter addSongs(File directory) throws IOException
+    {
+        String directoryPath = directory.getPath();
+        for (File file : BatchConverter.listSourceFiles(directory)) {
+            String song = file.getPath().substring(directoryPath.length() + 1).replace(File.separatorChar, '/');
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                addSong(song, reader);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Converts the song with the given name, whose lines are read from the given reader.
+     */
+    public SongBundleWriter addSong(String name, Reader reader) throws IOException
+    {
+        SectionHeaderParser sectionHeaderParser = songFormat.getSectionHeaderParser();
+        List<String> lines = new ArrayList<>();
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            lines.add(line);
+        }
+        songOffsets.add(songs.size());
+        writeNumber(songData, getTextId(name));
+        writeNumber(songData, lines.size());
+        for (String text : lines) {
+            writeNumber(songData, getTextId(text));
+            if (TamilScriptConverter.isBlank(text)) {
+                writeNumber(songData, 0);
+                writeNumber(songData, 0);
+                continue;
+            }
+            SectionHeader header = sectionHeaderParser.parse(text);
+            writeNumber(songData, getTextId(sectionHeaderParser.formatConvertedText(text, header,
+                    songFormat.getTransliterator())) + 1);
+            if (header == null) {
+                writeNumber(songData, 0);
+            } else {
+                writeNumber(songData, getTextId(header.getType()) + 1);
+                writeNumber(songData, getTextId(header.getNumber()));
+                writeNumber(songData, header.getLength());
+            }
+        }
+        ConversionMetrics.GLOBAL.addLines(lines.size());
+        return this;
+    }
+
+    private int getTextId(String text)
+    {
+        Integer id = textIds.get(text);
+        if (id == null) {
+            id = texts.size();
+            textIds.put(text, id);
+            texts.add(text);
+        }
+        return id;
+    }
+
+    public int getSongCount()
+    {
+        return songOffsets.size();
+    }
+
+    /**
+     * Writes the bundle of the songs added so far to the given file.
+     */
+    public void write(File file) throws IOException
+    {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(out);
+        }
+        logger.info("Wrote {} songs using {} distinct texts to {} ({} bytes)", songOffsets.size(), texts.size(), file,
+                file.length());
+    }
+
+    /**
+     * Writes the bundle of the songs added so far to the given stream, which isn't closed.
+     */
+    public void write(OutputStream out) throws IOException
+    {
+        ByteArrayOutputStream textBytes = new ByteArrayOutputStream();
+        DataOutputStream textData = new DataOutputStream(textBytes);
+        int[] textOffsets = new int[texts.size()];
+        for (int i = 0; i < texts.size(); i++) {
+            textOffsets[i] = HEADER_SIZE + textBytes.size();
+            byte[] bytes = texts.get(i).getBytes(StandardCharsets.UTF_8);
+            writeNumber(textData, bytes.length);
+            textData.write(bytes);
+        }
+        long textIndexOffset = HEADER_SIZE + (long) textBytes.size();
+        long songsOffset = textIndexOffset + 4L * texts.size();
+        long songIndexOffset = songsOffset + songs.size();
+        if (songIndexOffset + 4L * songOffsets.size() > Integer.MAX_VALUE) {
+            throw new IOException("The bundle is too large, split the songs into several bundles");
+        }
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(songOffsets.size());
+        data.writeInt(texts.size());
+        data.writeInt((int) textIndexOffset);
+        data.writeInt((int) songIndexOffset);
+        textBytes.writeTo(data);
+        for (int textOffset : textOffsets) {
+            data.writeInt(textOffset);
+        }
+        songs.writeTo(data);
+        for (int songOffset : songOffsets) {
+            data.writeInt((int) songsOffset + songOffset);
+        }
+        data.flush();
+    }
+
+    private static void writeNumber(DataOutputStream data, int number) throws IOException
+    {
+        while ((number & ~0x7f) != 0) {
+            data.writeByte((number & 0x7f) | 0x80);
+            number >>>= 7;
+        }
+        data.writeByte(number);
+    }
+}
@@ -0,0 +1,215 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Converts the songs of an OpenLP songbook, a SQLite database, in place: the lyrics of each song are written the
+ * way {@link TamilScriptConverter#convertFile(File, File)} writes them, and the romanised title and lyrics are added
+ * to the search columns so that the songs can be found by typing them in Latin script too.
+ * <p>
+ * The songs are read in pages ordered by id and updated using a batch per page, each page being committed in its
+ * own transaction, so the whole library is converted in a single pass holding a page in memory at once. The songs
+ * whose lyrics are already converted are skipped, so converting a songbook again only converts the new songs.
+ *
+ * @since 1.0
+ */
+public class SongDatabaseConverter
+{
+    static final int PAGE_SIZE = 500;
+    private static final String CDATA_START = "<![CDATA[";
+    private static final String CDATA_END = "]]>";
+    private static final String CONVERTED_MARKER = "{y}";
+    private static Logger logger = LoggerFactory.getLogger(SongDatabaseConverter.class);
+    private SongFormat songFormat = SongFormat.DEFAULT;
+
+    public void setSongFormat(SongFormat songFormat)
+    {
+        this.songFormat = songFormat;
+    }
+
+    /**
+     * Converts the songs of the given SQLite database.
+     *
+     * @return the number of songs converted
+     */
+    public long convert(File database) throws IOException
+    {
+        if (!database.isFile()) {
+            throw new IOException("Database " + database + " doesn't exist");
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.getPath())) {
+            return convert(connection);
+        } catch (SQLException ex) {
+            throw new IOException("Unable to convert the songs of " + database, ex);
+        }
+    }
+
+    /**
+     * Converts the songs read from the songs table of the given connection.
+     *
+     * @return the number of songs converted
+     */
+    long convert(Connection connection) throws SQLException
+    {
+        logger.info("Preparing to convert the songs...");
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long songCount = 0;
+        long skippedCount = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, title, lyrics FROM songs WHERE id > ? ORDER BY id LIMIT ?");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE songs SET lyrics = ?, search_title = ?, search_lyrics = ? WHERE id = ?")) {
+            long lastId = Long.MIN_VALUE;
+            int rowCount;
+            do {
+                select.setLong(1, lastId);
+                select.setInt(2, PAGE_SIZE);
+                rowCount = 0;
+                try (ResultSet songs = select.executeQuery()) {
+                    while (songs.next()) {
+                        rowCount++;
+                        lastId = songs.getLong(1);
+                        String title = nullToEmpty(songs.getString(2));
+                        String lyrics = nullToEmpty(songs.getString(3));
+                        if (lyrics.contains(CONVERTED_MARKER)) {
+                            skippedCount++;
+                            continue;
+                        }
+                        update.setString(1, convertLyrics(lyrics));
+                        update.setString(2, getSearchText(title + "@" + convert(title)));
+                        String lyricsText = getLyricsText(lyrics);
+                        update.setString(3, getSearchText(lyricsText + " " + convert(lyricsText)));
+                        update.setLong(4, lastId);
+                        update.addBatch();
+                        songCount++;
+                    }
+                }
+                update.executeBatch();
+                connection.commit();
+            } while (rowCount == PAGE_SIZE);
+        } catch (SQLException | RuntimeException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        logger.info("Converted {} songs, {} were already converted", songCount, skippedCount);
+        return songCount;
+    }
+
+    private String convert(String text)
+    {
+        return songFormat.getTransliterator().convert(text);
+    }
+
+    /**
+     * Converts the text of each verse of the given OpenLP lyrics, or the whole lyrics if they are not XML.
+     */
+    String convertLyrics(String lyrics)
+    {
+        if (!lyrics.contains(CDATA_START)) {
+            return convertText(lyrics);
+        }
+        StringBuilder convertedLyrics = new StringBuilder(lyrics.length() * 3);
+        int index = 0;
+        int start;
+        while ((start = lyrics.indexOf(CDATA_START, index)) >= 0) {
+            int textStart = start + CDATA_START.length();
+            int end = lyrics.indexOf(CDATA_END, textStart);
+            if (end < 0) {
+                break;
+            }
+            convertedLyrics.append(lyrics, index, textStart).append(convertText(lyrics.substring(textStart, end)));
+            index = end;
+        }
+        return convertedLyrics.append(lyrics, index, lyrics.length()).toString();
+    }
+
+    /**
+     * Writes the lines of the given text the way they are written in a converted file, with the line breaks used
+     * by OpenLP.
+     */
+    private String convertText(String text)
+    {
+        StringWriter writer = new StringWriter(text.length() * 3);
+        try {
+            BufferedReader reader = new BufferedReader(new StringReader(text));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                songFormat.writeLine(line, writer);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("StringWriter doesn't throw IOException", ex);
+        }
+        String convertedText = writer.toString().replace("\r\n", "\n");
+        return convertedText.endsWith("\n") ? convertedText.substring(0, convertedText.length() - 1) : convertedText;
+    }
+
+    /**
+     * @return the text of the verses of the given OpenLP lyrics, or the lyrics themselves if they are not XML
+     */
+    static String getLyricsText(String lyrics)
+    {
+        if (!lyrics.contains(CDATA_START)) {
+            return lyrics;
+        }
+        StringBuilder text = new StringBuilder();
+        int index = 0;
+        int start;
+        while ((start = lyrics.indexOf(CDATA_START, index)) >= 0) {
+            int end = lyrics.indexOf(CDATA_END, start);
+            if (end < 0) {
+                break;
+            }
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(lyrics, start + CDATA_START.length(), end);
+            index = end;
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return the given text in lower case, without punctuation and with a single space between the words, the
+     * way OpenLP searches the songs
+     */
+    static String getSearchText(String text)
+    {
+        StringBuilder searchText = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || Character.getType(c) == Character.NON_SPACING_MARK ||
+                    Character.getType(c) == Character.COMBINING_SPACING_MARK || c == '@') {
+                if (space && searchText.length() > 0) {
+                    searchText.append(' ');
+                }
+                searchText.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return searchText.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static String nullToEmpty(String text)
+    {
+        return text != null ? text : "";
+    }
+}
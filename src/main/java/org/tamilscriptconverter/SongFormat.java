@@ -0,0 +1,79 @@
+package org.tamilscriptconverter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The way the lines of a song are written in a converted file: each line is followed by its converted text,
+ * converted using a {@link Transliterator}, and the section headers are found using a
+ * {@link SectionHeaderParser}. A song format is immutable, so it can be shared by several threads.
+ *
+ * @since 1.0
+ */
+public final class SongFormat
+{
+    public static final SongFormat DEFAULT = new SongFormat(Transliterator.DEFAULT, SectionHeaderParser.DEFAULT);
+    private final Transliterator transliterator;
+    private final SectionHeaderParser sectionHeaderParser;
+
+    public SongFormat(Transliterator transliterator, SectionHeaderParser sectionHeaderParser)
+    {
+        if (transliterator == null || sectionHeaderParser == null) {
+            throw new IllegalArgumentException("Transliterator and section header parser can't be null");
+        }
+        this.transliterator = transliterator;
+        this.sectionHeaderParser = sectionHeaderParser;
+    }
+
+    public Transliterator getTransliterator()
+    {
+        return transliterator;
+    }
+
+    public SectionHeaderParser getSectionHeaderParser()
+    {
+        return sectionHeaderParser;
+    }
+
+    /**
+     * @return a version which changes whenever the converted text of a song could change, since it depends on the
+     * version of the mapping table and on the section markers
+     */
+    public String getVersion()
+    {
+        return transliterator.getMappingTable().getVersion() + " " + sectionHeaderParser;
+    }
+
+    /**
+     * Writes the given line of a song followed by its converted text.
+     */
+    public void writeLine(String line, Writer writer) throws IOException
+    {
+        if (TamilScriptConverter.isBlank(line)) {
+            writer.write(line);
+            writer.write("\r\n");
+            return;
+        }
+        SectionHeader header = sectionHeaderParser.parse(line);
+        writer.write(sectionHeaderParser.formatTamilText(line, header));
+        writer.write("\r\n");
+        writer.write(sectionHeaderParser.formatConvertedText(line, header, transliterator));
+        writer.write("\r\n");
+    }
+
+    /**
+     * Converts the given line of a song the way {@link #writeLine(String, Writer)} writes it, keeping its parts
+     * apart.
+     *
+     * @param lineNumber the number of the line in the song, starting at 1
+     */
+    public ConvertedLine convertLine(long lineNumber, String line)
+    {
+        if (TamilScriptConverter.isBlank(line)) {
+            return new ConvertedLine(lineNumber, line, null, "");
+        }
+        SectionHeader header = sectionHeaderParser.parse(line);
+        return new ConvertedLine(lineNumber, line, header,
+                sectionHeaderParser.formatConvertedText(line, header, transliterator));
+    }
+}
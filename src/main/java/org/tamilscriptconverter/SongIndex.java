@@ -0,0 +1,510 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the Tamil lines of a collection of songs matching a query typed in Latin script, like "yaesu raajanae".
+ * <p>
+ * The lines are converted when the index is built, the words of the converted text are normalised so that the
+ * usual variant spellings are written the same way (see {@link #normalise(CharSequence)}) and split into trigrams,
+ * each trigram pointing to the sorted ids of the lines containing it. A query is normalised the same way and the
+ * lines sharing the most trigrams with it are returned, so that a word spelt differently or cut short still matches.
+ * An index can't be modified once built, so it can be shared by several threads, and it can be written to a compact
+ * binary file which is much faster to load than converting the songs again.
+ *
+ * @since 1.0
+ */
+public final class SongIndex
+{
+    private static final int FILE_MAGIC = 0x54534958;
+    private static final int FILE_FORMAT_VERSION = 1;
+    //a trigram is made of letters, digits and the word boundary, packed into a number
+    private static final int GRAM_ALPHABET_SIZE = 37;
+    private static final int GRAM_COUNT = GRAM_ALPHABET_SIZE * GRAM_ALPHABET_SIZE * GRAM_ALPHABET_SIZE;
+    private static final int WORD_BOUNDARY = 36;
+    private static final int[] EMPTY = new int[0];
+    private static Logger logger = LoggerFactory.getLogger(SongIndex.class);
+    private final String[] songs;
+    private final int[] lineSongs;
+    private final int[] lineNumbers;
+    private final String[] lines;
+    private final int[] lineGramCounts;
+    private final int[][] postings;
+
+    private SongIndex(String[] songs, int[] lineSongs, int[] lineNumbers, String[] lines, int[] lineGramCounts,
+                      int[][] postings)
+    {
+        this.songs = songs;
+        this.lineSongs = lineSongs;
+        this.lineNumbers = lineNumbers;
+        this.lines = lines;
+        this.lineGramCounts = lineGramCounts;
+        this.postings = postings;
+    }
+
+    public int getSongCount()
+    {
+        return songs.length;
+    }
+
+    public int getLineCount()
+    {
+        return lines.length;
+    }
+
+    /**
+     * Returns the lines best matching the given query, the best match first.
+     *
+     * @param maxHitCount the maximum number of lines returned
+     */
+    public List<Hit> search(String query, int maxHitCount)
+    {
+        int[] queryGrams = getGrams(normalise(query));
+        if (queryGrams.length == 0 || maxHitCount < 1) {
+            return Collections.emptyList();
+        }
+        int[] sharedGramCounts = new int[lines.length];
+        int[] matchingLines = new int[lines.length];
+        int matchingLineCount = 0;
+        for (int gram : queryGrams) {
+            for (int line : postings[gram]) {
+                if (sharedGramCounts[line]++ == 0) {
+                    matchingLines[matchingLineCount++] = line;
+                }
+            }
+        }
+        PriorityQueue<Hit> bestHits = new PriorityQueue<>(maxHitCount + 1);
+        for (int i = 0; i < matchingLineCount; i++) {
+            int line = matchingLines[i];
+            //the dice coefficient, so that a short line containing the query beats a long line containing it too
+            double score = 2.0 * sharedGramCounts[line] / (queryGrams.length + lineGramCounts[line]);
+            if (bestHits.size() < maxHitCount || score >= bestHits.peek().score) {
+                bestHits.add(new Hit(songs[lineSongs[line]], lineNumbers[line], lines[line], score));
+                if (bestHits.size() > maxHitCount) {
+                    bestHits.poll();
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(bestHits);
+        Collections.sort(hits, Collections.reverseOrder());
+        return hits;
+    }
+
+    /**
+     * Normalises the given text in Latin script: keeps only the letters and digits of its words, in lower case and
+     * separated by a space, and writes the same way the spellings which are often used for one another, like a long
+     * vowel and the short one, "zh" and "l", "th" and "t" or "d" and "t". The result is only meant to be compared
+     * with another normalised text, it doesn't read well.
+     */
+    static String normalise(CharSequence text)
+    {
+        StringBuilder normalisedText = new StringBuilder(text.length());
+        char previousChar = ' ';
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            char nextChar = i + 1 < text.length() ? Character.toLowerCase(text.charAt(i + 1)) : ' ';
+            char normalisedChar = c;
+            if ((c < 'a' || c > 'z') && (c < '0' || c > '9')) {
+                normalisedChar = ' ';
+            } else if (c == 'z' && nextChar == 'h') {
+                normalisedChar = 'l';
+                i++;
+            } else if ((c == 'a' && nextChar == 'e') || (c == 'o' && nextChar == 'a')) {
+                normalisedChar = c == 'a' ? 'e' : 'o';
+                i++;
+            } else if ((c == 'e' && nextChar == 'e') || (c == 'o' && nextChar == 'o')) {
+                normalisedChar = c == 'e' ? 'i' : 'u';
+                i++;
+            } else if ("bcdgkpst".indexOf(c) >= 0) {
+                normalisedChar = c == 'b' ? 'p' : c == 'c' ? 's' : c == 'd' ? 't' : c == 'g' ? 'k' : c;
+                if (nextChar == 'h') {
+                    i++;
+                }
+            } else if (c == 'w') {
+                normalisedChar = 'v';
+            }
+            if (normalisedChar != previousChar && (normalisedChar != ' ' || normalisedText.length() > 0)) {
+                normalisedText.append(normalisedChar);
+            }
+            previousChar = normalisedChar;
+        }
+        int length = normalisedText.length();
+        return length > 0 && normalisedText.charAt(length - 1) == ' ' ? normalisedText.substring(0, length - 1)
+                : normalisedText.toString();
+    }
+
+    /**
+     * @return the distinct trigrams of the words of the given normalised text, in ascending order
+     */
+    static int[] getGrams(String normalisedText)
+    {
+        if (normalisedText.isEmpty()) {
+            return EMPTY;
+        }
+        int[] grams = new int[normalisedText.length() + 2];
+        int gramCount = 0;
+        for (String word : normalisedText.split(" ")) {
+            int first = WORD_BOUNDARY;
+            int second = WORD_BOUNDARY;
+            for (int i = 0; i <= word.length(); i++) {
+                int third = i < word.length() ? toGramChar(word.charAt(i)) : WORD_BOUNDARY;
+                if (gramCount == grams.length) {
+                    grams = Arrays.copyOf(grams, gramCount * 2);
+                }
+                grams[gramCount++] = (first * GRAM_ALPHABET_SIZE + second) * GRAM_ALPHABET_SIZE + third;
+                first = second;
+                second = third;
+            }
+        }
+        Arrays.sort(grams, 0, gramCount);
+        int distinctGramCount = 0;
+        for (int i = 0; i < gramCount; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinctGramCount++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinctGramCount);
+    }
+
+    private static int toGramChar(char normalisedChar)
+    {
+        return normalisedChar <= '9' ? 26 + normalisedChar - '0' : normalisedChar - 'a';
+    }
+
+    /**
+     * Writes the index to the given file, which can be loaded again by {@link #read(File)}.
+     */
+    public void write(File file) throws IOException
+    {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes the index to the given stream, which isn't closed. The numbers are written as variable length integers
+     * and the ids of the lines of each trigram as the difference from the previous one, which are mostly small.
+     */
+    public void write(OutputStream out) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, Transliterator.STREAM_BUFFER_SIZE));
+        data.writeInt(FILE_MAGIC);
+        data.writeInt(FILE_FORMAT_VERSION);
+        writeNumber(data, songs.length);
+        for (String song : songs) {
+            writeText(data, song);
+        }
+        writeNumber(data, lines.length);
+        for (int line = 0; line < lines.length; line++) {
+            writeNumber(data, lineSongs[line]);
+            writeNumber(data, lineNumbers[line]);
+            writeNumber(data, lineGramCounts[line]);
+            writeText(data, lines[line]);
+        }
+        int gramCount = 0;
+        for (int[] gramLines : postings) {
+            gramCount += gramLines.length > 0 ? 1 : 0;
+        }
+        writeNumber(data, gramCount);
+        for (int gram = 0; gram < GRAM_COUNT; gram++) {
+            if (postings[gram].length > 0) {
+                writeNumber(data, gram);
+                writeNumber(data, postings[gram].length);
+                int previousLine = 0;
+                for (int line : postings[gram]) {
+                    writeNumber(data, line - previousLine);
+                    previousLine = line;
+                }
+            }
+        }
+        data.flush();
+    }
+
+    public static SongIndex read(File file) throws IOException
+    {
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #write(OutputStream)} from the given stream, which isn't closed.
+     *
+     * @throws IOException if the stream doesn't hold an index
+     */
+    public static SongIndex read(InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, Transliterator.STREAM_BUFFER_SIZE));
+        if (data.readInt() != FILE_MAGIC) {
+            throw new IOException("Not a song index");
+        }
+        int formatVersion = data.readInt();
+        if (formatVersion != FILE_FORMAT_VERSION) {
+            throw new IOException("Unsupported song index version " + formatVersion);
+        }
+        String[] songs = new String[readNumber(data)];
+        for (int song = 0; song < songs.length; song++) {
+            songs[song] = readText(data);
+        }
+        int lineCount = readNumber(data);
+        int[] lineSongs = new int[lineCount];
+        int[] lineNumbers = new int[lineCount];
+        int[] lineGramCounts = new int[lineCount];
+        String[] lines = new String[lineCount];
+        for (int line = 0; line < lineCount; line++) {
+            lineSongs[line] = readNumber(data);
+            lineNumbers[line] = readNumber(data);
+            lineGramCounts[line] = readNumber(data);
+            lines[line] = readText(data);
+        }
+        int[][] postings = new int[GRAM_COUNT][];
+        Arrays.fill(postings, EMPTY);
+        int gramCount = readNumber(data);
+        for (int i = 0; i < gramCount; i++) {
+            int gram = readNumber(data);
+            int[] gramLines = new int[readNumber(data)];
+            int previousLine = 0;
+            for (int j = 0; j < gramLines.length; j++) {
+                gramLines[j] = previousLine + readNumber(data);
+                previousLine = gramLines[j];
+            }
+            postings[gram] = gramLines;
+        }
+        return new SongIndex(songs, lineSongs, lineNumbers, lines, lineGramCounts, postings);
+    }
+
+    private static void writeNumber(DataOutputStream data, int number) throws IOException
+    {
+        while ((number & ~0x7f) != 0) {
+            data.writeByte((number & 0x7f) | 0x80);
+            number >>>= 7;
+        }
+        data.writeByte(number);
+    }
+
+    private static int readNumber(DataInputStream data) throws IOException
+    {
+        int number = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.readUnsignedByte();
+            number |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return number;
+            }
+        }
+        throw new IOException("Invalid number in the song index");
+    }
+
+    private static void writeText(DataOutputStream data, String text) throws IOException
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeNumber(data, bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readText(DataInputStream data) throws IOException
+    {
+        byte[] bytes = new byte[readNumber(data)];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SongIndex[" + songs.length + " songs, " + lines.length + " lines]";
+    }
+
+    /**
+     * A line matching a query.
+     */
+    public static final class Hit implements Comparable<Hit>
+    {
+        private final String song;
+        private final int lineNumber;
+        private final String line;
+        private final double score;
+
+        Hit(String song, int lineNumber, String line, double score)
+        {
+            this.song = song;
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.score = score;
+        }
+
+        /**
+         * @return the name of the song, the path of its file relative to the directory indexed
+         */
+        public String getSong()
+        {
+            return song;
+        }
+
+        /**
+         * @return the number of the line in the song, starting at 1
+         */
+        public int getLineNumber()
+        {
+            return lineNumber;
+        }
+
+        /**
+         * @return the line in Tamil script
+         */
+        public String getLine()
+        {
+            return line;
+        }
+
+        /**
+         * @return how well the line matches the query, from 0 exclusive to 1 when they have the same trigrams
+         */
+        public double getScore()
+        {
+            return score;
+        }
+
+        /**
+         * Orders the hits by score, then the hits of the same score by song and line number descending, so that
+         * the best hit is the greatest and the hits of a song come in order once reversed.
+         */
+        @Override
+        public int compareTo(Hit hit)
+        {
+            int result = Double.compare(score, hit.score);
+            if (result == 0) {
+                result = hit.song.compareTo(song);
+            }
+            return result != 0 ? result : Integer.compare(hit.lineNumber, lineNumber);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%.2f %s:%d %s", score, song, lineNumber, line);
+        }
+    }
+
+    /**
+     * Converts the songs added to it and builds the index of their lines. Not thread safe.
+     */
+    public static final class Builder
+    {
+        private final Transliterator transliterator;
+        private final List<String> songs = new ArrayList<>();
+        private final List<String> lines = new ArrayList<>();
+        private int[] lineSongs = new int[1024];
+        private int[] lineNumbers = new int[1024];
+        private int[] lineGramCounts = new int[1024];
+        private final int[][] postings = new int[GRAM_COUNT][];
+        private final int[] postingSizes = new int[GRAM_COUNT];
+        private final StringBuilder convertedLine = new StringBuilder();
+
+        public Builder()
+        {
+            this(Transliterator.DEFAULT);
+        }
+
+        public Builder(Transliterator transliterator)
+        {
+            this.transliterator = transliterator;
+        }
+
+        /**
+         * Adds the files of the given directory and its sub directories, read as UTF-8, naming the songs after the
+         * path of their file relative to the directory.
+         */
+        public Builder addSongs(File directory) throws IOException
+        {
+            String directoryPath = directory.getPath();
+            for (File file : BatchConverter.listSourceFiles(directory)) {
+                String song = file.getPath().substring(directoryPath.length() + 1).replace(File.separatorChar, '/');
+                try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                    addSong(song, reader);
+                }
+            }
+            logger.info("Indexed {} lines of {} songs in {}", lines.size(), songs.size(), directory);
+            return this;
+        }
+
+        /**
+         * Adds the song with the given name, whose lines are read from the given reader. The blank lines aren't
+         * indexed.
+         */
+        public Builder addSong(String name, Reader reader) throws IOException
+        {
+            int song = songs.size();
+            songs.add(name);
+            BufferedReader bufferedReader = new BufferedReader(reader);
+            int lineNumber = 0;
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                lineNumber++;
+                if (!line.trim().isEmpty()) {
+                    addLine(song, lineNumber, line);
+                }
+            }
+            return this;
+        }
+
+        private void addLine(int song, int lineNumber, String line)
+        {
+            int id = lines.size();
+            if (id == lineSongs.length) {
+                lineSongs = Arrays.copyOf(lineSongs, id * 2);
+                lineNumbers = Arrays.copyOf(lineNumbers, id * 2);
+                lineGramCounts = Arrays.copyOf(lineGramCounts, id * 2);
+            }
+            convertedLine.setLength(0);
+            int[] grams = getGrams(normalise(transliterator.convert(line, convertedLine)));
+            lines.add(line);
+            lineSongs[id] = song;
+            lineNumbers[id] = lineNumber;
+            lineGramCounts[id] = grams.length;
+            for (int gram : grams) {
+                int[] gramLines = postings[gram];
+                if (gramLines == null) {
+                    gramLines = postings[gram] = new int[4];
+                } else if (postingSizes[gram] == gramLines.length) {
+                    gramLines = postings[gram] = Arrays.copyOf(gramLines, gramLines.length * 2);
+                }
+                gramLines[postingSizes[gram]++] = id;
+            }
+        }
+
+        public SongIndex build()
+        {
+            int lineCount = lines.size();
+            int[][] compactPostings = new int[GRAM_COUNT][];
+            for (int gram = 0; gram < GRAM_COUNT; gram++) {
+                compactPostings[gram] = postings[gram] != null ? Arrays.copyOf(postings[gram], postingSizes[gram])
+                        : EMPTY;
+            }
+            return new SongIndex(songs.toArray(new String[songs.size()]), Arrays.copyOf(lineSongs, lineCount),
+                    Arrays.copyOf(lineNumbers, lineCount), lines.toArray(new String[lineCount]),
+                    Arrays.copyOf(lineGramCounts, lineCount), compactPostings);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package org.tamilscriptconverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converts the given columns of a CSV or TSV table, or the given fields of JSON lines, adding the converted values
+ * as new columns or fields named after the converted ones with the {@link #SUFFIX}.
+ * <p>
+ * The values can be converted to several romanisations in a single scan using {@link #setTransliterators(List)}, the
+ * first one being written to the column named with the suffix and each other one to a column named with the suffix
+ * followed by the name of its mapping table, like "lyrics_romanised_iso_15919".
+ * <p>
+ * The rows are read in batches which are converted by several threads and written in the order they were read.
+ * Only a few batches per thread are held in memory at once, so a table of any size can be converted. A JSON line
+ * which isn't an object is logged and skipped, and the target file is only replaced once the whole table has been
+ * converted.
+ *
+ * @since 1.0
+ */
+public class TableConverter
+{
+    public static final String SUFFIX = "_romanised";
+    static final int BATCH_SIZE = 1000;
+    private static final int BATCHES_PER_THREAD = 2;
+    private static Logger logger = LoggerFactory.getLogger(TableConverter.class);
+    private final TableFormat format;
+    private final List<String> columns;
+    private final int threadCount;
+    private final AtomicLong skippedRowCount = new AtomicLong();
+    private MultiTransliterator transliterator = new MultiTransliterator(
+            Collections.singletonList(Transliterator.DEFAULT));
+    private List<String> suffixes = Collections.singletonList(SUFFIX);
+
+    /**
+     * @param columns the names of the columns or fields to convert
+     */
+    public TableConverter(TableFormat format, List<String> columns, int threadCount)
+    {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("No column to convert");
+        }
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count should be at least 1 but was " + threadCount);
+        }
+        this.format = format;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.threadCount = threadCount;
+    }
+
+    public void setTransliterator(Transliterator transliterator)
+    {
+        setTransliterators(Collections.singletonList(transliterator));
+    }
+
+    /**
+     * Sets the transliterators giving the romanisations written for each converted column, the first one to the
+     * column named with the {@link #SUFFIX}.
+     */
+    public void setTransliterators(List<Transliterator> transliterators)
+    {
+        MultiTransliterator transliterator = new MultiTransliterator(transliterators);
+        List<String> suffixes = new ArrayList<>(transliterators.size());
+        suffixes.add(SUFFIX);
+        for (int i = 1; i < transliterators.size(); i++) {
+            String suffix = SUFFIX + "_" + getSchemeName(transliterators.get(i).getMappingTable());
+            if (suffixes.contains(suffix)) {
+                throw new IllegalArgumentException("Mapping table " + transliterators.get(i).getMappingTable() +
+                        " is given twice");
+            }
+            suffixes.add(suffix);
+        }
+        this.transliterator = transliterator;
+        this.suffixes = Collections.unmodifiableList(suffixes);
+    }
+
+    /**
+     * @return the name of the given mapping table as it is written in a column name, like "iso_15919" for
+     * iso-15919.mapping
+     */
+    static String getSchemeName(MappingTable mappingTable)
+    {
+        String name = mappingTable.getName();
+        int extension = name.lastIndexOf('.');
+        if (extension > 0) {
+            name = name.substring(0, extension);
+        }
+        StringBuilder schemeName = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            schemeName.append(Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : '_');
+        }
+        return schemeName.toString();
+    }
+
+    /**
+     * Converts the given UTF-8 table to the given target.
+     *
+     * @return the number of rows converted, without the header
+     */
+    public long convert(File source, File target) throws IOException
+    {
+        if (target.getParentFile() != null && !target.getParentFile().exists()) {
+            target.getParentFile().mkdirs();
+        }
+        logger.info("Preparing to convert the columns {} of {} to {}...", columns, source, target);
+        File temporaryFile = new File(target.getPath() + ".tmp");
+        long rowCount;
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(source.toPath(), StandardCharsets.UTF_8);
+                 BufferedWriter writer = Files.newBufferedWriter(temporaryFile.toPath(), StandardCharsets.UTF_8)) {
+                rowCount = convert(reader, writer);
+            }
+            Files.move(temporaryFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+        logger.info("Finished converting {} rows of {}, skipped {} invalid rows", rowCount, source,
+                skippedRowCount.get());
+        return rowCount;
+    }
+
+    /**
+     * Converts the table read from the given reader and writes it to the given writer. Neither of them is closed.
+     *
+     * @return the number of rows converted, without the header and the rows skipped
+     */
+    public long convert(Reader in, Writer out) throws IOException
+    {
+        skippedRowCount.set(0);
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        Rows rows = format == TableFormat.JSONL ? new JsonRows(reader) : new DelimitedRows(reader, out);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            Queue<Future<String>> pending = new ArrayDeque<>();
+            long rowCount = 0;
+            List<Object> batch;
+            while (!(batch = rows.nextBatch()).isEmpty()) {
+                rowCount += batch.size();
+                final List<Object> rowsToConvert = batch;
+                final Rows converter = rows;
+                pending.add(executor.submit(new Callable<String>()
+                {
+                    @Override
+                    public String call()
+                    {
+                        StringBuilder convertedRows = new StringBuilder();
+                        for (Object row : rowsToConvert) {
+                            converter.convert(row, convertedRows);
+                        }
+                        return convertedRows.toString();
+                    }
+                }));
+                if (pending.size() >= threadCount * BATCHES_PER_THREAD) {
+                    out.write(get(pending.remove()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                out.write(get(pending.remove()));
+            }
+            out.flush();
+            return rowCount - skippedRowCount.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the number of invalid rows skipped by the last conversion
+     */
+    public long getSkippedRowCount()
+    {
+        return skippedRowCount.get();
+    }
+
+    private static String get(Future<String> future) throws IOException
+    {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while converting the table", ex);
+        }
+    }
+
+    /**
+     * Reads the rows of a table and converts them, the conversion being done by several threads at once.
+     */
+    private abstract class Rows
+    {
+        List<Object> nextBatch() throws IOException
+        {
+            List<Object> batch = new ArrayList<>(BATCH_SIZE);
+            Object row;
+            while (batch.size() < BATCH_SIZE && (row = next()) != null) {
+                batch.add(row);
+            }
+            return batch;
+        }
+
+        abstract Object next() throws IOException;
+
+        abstract void convert(Object row, StringBuilder out);
+    }
+
+    private class DelimitedRows extends Rows
+    {
+        private final DelimitedRecords records;
+        private final int[] columnIndexes;
+        private final boolean quoted = format == TableFormat.CSV;
+
+        DelimitedRows(BufferedReader reader, Writer out) throws IOException
+        {
+            records = new DelimitedRecords(reader, format.getDelimiter(), quoted);
+            List<String> header = records.next();
+            if (header == null) {
+                throw new IOException("The table doesn't have a header");
+            }
+            columnIndexes = new int[columns.size()];
+            List<String> convertedHeader = new ArrayList<>(header);
+            for (int i = 0; i < columns.size(); i++) {
+                columnIndexes[i] = header.indexOf(columns.get(i));
+                if (columnIndexes[i] < 0) {
+                    throw new IllegalArgumentException("Column " + columns.get(i) + " not found in " + header);
+                }
+                for (String suffix : suffixes) {
+                    convertedHeader.add(columns.get(i) + suffix);
+                }
+            }
+            StringBuilder headerLine = new StringBuilder();
+            DelimitedRecords.write(convertedHeader, format.getDelimiter(), quoted, headerLine);
+            out.write(headerLine.toString());
+        }
+
+        @Override
+        Object next() throws IOException
+        {
+            return records.next();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void convert(Object row, StringBuilder out)
+        {
+            List<String> fields = new ArrayList<>((List<String>) row);
+            int fieldCount = fields.size();
+            for (int columnIndex : columnIndexes) {
+                if (columnIndex < fieldCount) {
+                    fields.addAll(Arrays.asList(transliterator.convert(fields.get(columnIndex))));
+                } else {
+                    fields.addAll(Collections.nCopies(suffixes.size(), ""));
+                }
+            }
+            DelimitedRecords.write(fields, format.getDelimiter(), quoted, out);
+        }
+    }
+
+    private class JsonRows extends Rows
+    {
+        private final BufferedReader reader;
+        private final Set<String> fieldNames = new LinkedHashSet<>(columns);
+
+        JsonRows(BufferedReader reader)
+        {
+            this.reader = reader;
+        }
+
+        @Override
+        Object next() throws IOException
+        {
+            return reader.readLine();
+        }
+
+        @Override
+        void convert(Object row, StringBuilder out)
+        {
+            String line = (String) row;
+            if (!line.trim().isEmpty()) {
+                Map<String, String> fields;
+                try {
+                    fields = JsonLines.getStringFields(line, fieldNames);
+                } catch (IllegalArgumentException ex) {
+                    logger.warn("Skipping the invalid JSON line: {}", ex.getMessage());
+                    skippedRowCount.incrementAndGet();
+                    return;
+                }
+                Map<String, String> convertedFields = new LinkedHashMap<>();
+                for (String name : columns) {
+                    if (fields.containsKey(name)) {
+                        String[] romanisations = transliterator.convert(fields.get(name));
+                        for (int i = 0; i < romanisations.length; i++) {
+                            convertedFields.put(name + suffixes.get(i), romanisations[i]);
+                        }
+                    }
+                }
+                out.append(JsonLines.addStringFields(line, convertedFields));
+            }
+            out.append('\n');
+        }
+    }
+
+    /**
+     * @return the names of the columns given like "title,lyrics"
+     */
+    public static List<String> parseColumns(String columns)
+    {
+        List<String> names = new ArrayList<>();
+        for (String name : Arrays.asList(columns.split(","))) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,48 @@
+package org.tamilscriptconverter;
+
+/**
+ * The formats of the tables converted by the {@link TableConverter}.
+ *
+ * @since 1.0
+ */
+public enum TableFormat
+{
+    /**
+     * Comma separated values with a header, the fields being quoted as in RFC 4180
+     */
+    CSV(','),
+    /**
+     * Tab separated values with a header, the fields being never quoted
+     */
+    TSV('\t'),
+    /**
+     * A JSON object per line
+     */
+    JSONL((char) 0);
+
+    private final char delimiter;
+
+    TableFormat(char delimiter)
+    {
+        this.delimiter = delimiter;
+    }
+
+    char getDelimiter()
+    {
+        return delimiter;
+    }
+
+    /**
+     * @return the format of the given file, from its extension
+     */
+    public static TableFormat fromFileName(String fileName)
+    {
+        String name = fileName.toLowerCase();
+        if (name.endsWith(".tsv") || name.endsWith(".tab")) {
+            return TSV;
+        } else if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) {
+            return JSONL;
+        }
+        return CSV;
+    }
+}
@@ -1,13 +1,11 @@
 package org.tamilscriptconverter;
 
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * @author James Selvakumar
@@ -30,139 +28,82 @@ public class TamilScriptConverter
     public static final List<Character> VOWEL_SIGNS = Arrays.asList(VOWEL_SIGN_AA, VOWEL_SIGN_I, VOWEL_SIGN_II,
             VOWEL_SIGN_U, VOWEL_SIGN_UU, VOWEL_SIGN_E, VOWEL_SIGN_EE, VOWEL_SIGN_AI, VOWEL_SIGN_O, VOWEL_SIGN_OO,
             VOWEL_SIGN_AU);
-    private static final String STARTS_WITH_NUMBER_REGEX = "^[0-9]{1,2}.+";
-    private static final String STARTING_NUMBER_REGEX = "^[0-9]{1,2}.";
     private static Logger logger = LoggerFactory.getLogger(TamilScriptConverter.class);
-    private static Map<String, String> charMap = new HashMap<>();
 
-    static {
-        //uyir
-        charMap.put("அ", "a");
-        charMap.put("ஆ", "aa");
-        charMap.put("இ", "i");
-        charMap.put("ஈ", "ee");
-        charMap.put("உ", "u");
-        charMap.put("ஊ", "oo");
-        charMap.put("எ", "e");
-        charMap.put("ஏ", "ae");
-        charMap.put("ஐ", "ai");
-        charMap.put("ஒ", "o");
-        charMap.put("ஓ", "oa");
-        //mei
-        charMap.put("க்", "k");
-        charMap.put("ங்", "ng");
-        charMap.put("ச்", "ch");
-        charMap.put("ஜ்", "j");
-        charMap.put("ஞ்", "nj");
-        charMap.put("ட்", "t");
-        charMap.put("ண்", "n");
-        charMap.put("த்", "th");
-        charMap.put("ந்", "n");
-        charMap.put("ன்", "n");
-        charMap.put("ப்", "p");
-        charMap.put("ம்", "m");
-        charMap.put("ய்", "y");
-        charMap.put("ர்", "r");
-        charMap.put("ற்", "tr");
-        charMap.put("ல்", "l");
-        charMap.put("ள்", "l");
-        charMap.put("ழ்", "zh");
-        charMap.put("வ்", "v");
-        charMap.put("ஷ்", "sh");
-        charMap.put("ஸ்", "s");
+    public static ConversionSummary convertFiles(File source) throws IOException
+    {
+        return convertFiles(source, Runtime.getRuntime().availableProcessors());
+    }
 
-        //uyirmei
-        charMap.put("க", "ka");
-        charMap.put("ங", "nga");
-        charMap.put("ச", "sa");
-        charMap.put("ஞ", "nya");
-        charMap.put("ட", "ta");
-        charMap.put("ண", "na");
-        charMap.put("த", "tha");
-        charMap.put("ந", "na");
-        charMap.put("ன", "na");
-        charMap.put("ப", "pa");
-        charMap.put("ம", "ma");
-        charMap.put("ய", "ya");
-        charMap.put("ர", "ra");
-        charMap.put("ற", "ra");
-        charMap.put("ல", "la");
-        charMap.put("ள", "la");
-        charMap.put("ழ", "zha");
-        charMap.put("வ", "va");
-        charMap.put("ஷ", "sha");
-        charMap.put("ஸ", "sa");
-        charMap.put("ஜ", "ja");
+    /**
+     * Converts the given file, or all the files in the given directory and its sub directories using the given
+     * number of threads.
+     */
+    public static ConversionSummary convertFiles(File source, int threadCount) throws IOException
+    {
+        return new BatchConverter(threadCount).convert(source);
     }
 
-    public static void convertFiles(File source) throws IOException
+    static long convertFile(File source) throws IOException
     {
-        if (source.exists()) {
-            if (source.isFile()) {
-                convertFile(source);
-            } else {
-                File[] files = source.listFiles();
-                logger.info("Preparing to convert the files in {}", files.length, source);
-                for (File file : files) {
-                    convertFile(file);
-                }
-                logger.info("Finished converting the files!", files.length);
-            }
-        } else {
-            logger.error("File {} doesn't exist!", source);
-        }
+        return convertFile(source, getTargetFile(source));
     }
 
-    static void convertFile(File source) throws IOException
+    /**
+     * @return the number of lines converted
+     */
+    static long convertFile(File source, File target) throws IOException
     {
-        convertFile(source, getTargetFile(source));
+        return convertFile(source, target, SongFormat.DEFAULT);
     }
 
-    static void convertFile(File source, File target) throws IOException
+    /**
+     * Converts the given UTF-8 file writing its lines in the given format. The bytes are converted as they are read,
+     * without decoding them, see {@link Utf8LineConverter}.
+     *
+     * @return the number of lines converted
+     */
+    static long convertFile(File source, File target, SongFormat format) throws IOException
     {
+        long lineCount = 0;
         if (source != null && source.exists() && source.isFile()) {
             if (!target.getParentFile().exists()) {
                 target.getParentFile().mkdirs();
             }
             logger.info("Preparing to convert Tamil script in the source {} to {}...", source.getName(), target);
-            BufferedReader reader = null;
-            BufferedWriter writer = null;
-            try {
-                reader = new BufferedReader(new FileReader(source));
-                writer = new BufferedWriter(new FileWriter(target));
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    writer.write(formatTamilText(line) + "\r\n");
-                    if (StringUtils.isNotBlank(line)) {
-                        writer.write(formatConvertedText(convert(line)) + "\r\n");
-                    }
-                }
+            long startTime = System.nanoTime();
+            try (InputStream in = new FileInputStream(source);
+                 OutputStream out = new FileOutputStream(target)) {
+                lineCount = new Utf8LineConverter(format).convert(in, out);
                 logger.info("Finished converting {}", source);
-            } catch (IOException ex) {
-                logger.error("Error occurred while reading source file", ex);
-            } finally {
-                if (writer != null) {
-                    writer.close();
-                }
-                if (reader != null) {
-                    reader.close();
-                }
             }
+            ConversionMetrics.GLOBAL.addLines(lineCount);
+            ConversionMetrics.GLOBAL.addFile(source.length(), System.nanoTime() - startTime);
         } else {
             logger.error("File {} doesn't exist!", source);
         }
+        return lineCount;
     }
 
     static String formatTamilText(String text)
     {
-        if (StringUtils.isNotBlank(text)) {
-            if(isTextStartsWithNumber(text)){
-                return getVerseTag((text)) + "\r\n" + getTextWithFormattingTag(text);
-            }else {
-               return getTextWithFormattingTag(text);
+        return SectionHeaderParser.DEFAULT.formatTamilText(text);
+    }
+
+    /**
+     * Same as {@link org.apache.commons.lang3.StringUtils#isBlank(CharSequence)}, which isn't used by the classes
+     * converting a file so that commons-lang3 isn't loaded when converting from the command line.
+     */
+    static boolean isBlank(CharSequence text)
+    {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    return false;
+                }
             }
         }
-        return text;
+        return true;
     }
 
     static String getTextWithFormattingTag(String text)
@@ -172,59 +113,95 @@ public class TamilScriptConverter
 
     static String getVerseTag(String text)
     {
-        return "---[Verse:" + getVerseNumber(text) + "]---";
+        return "---[" + SectionHeader.VERSE + ":" + getVerseNumber(text) + "]---";
     }
 
     static String getVerseNumber(String text)
     {
-        Pattern pattern = Pattern.compile(STARTING_NUMBER_REGEX);
-        Matcher matcher = pattern.matcher(text);
-        while(matcher.find()){
-            return StringUtils.removeEnd(matcher.group(0), ".").trim();
-        }
-        return "";
+        return SectionHeaderParser.getVerseNumber(text, SectionHeaderParser.getVerseNumberLength(text));
     }
 
     static String formatConvertedText(String text)
     {
-        String textToConvert = text;
-        if (isTextStartsWithNumber(text)) {
-            textToConvert = StringUtils.removePattern(text, STARTING_NUMBER_REGEX);
-        }
-        return StringUtils.capitalize(textToConvert.trim());
+        return SectionHeaderParser.DEFAULT.formatConvertedText(text);
     }
 
     static boolean isTextStartsWithNumber(String text)
     {
-        return text.matches(STARTS_WITH_NUMBER_REGEX);
+        return SectionHeaderParser.startsWithNumber(text);
     }
 
     public static String convert(String text)
     {
-        StringBuilder convertedWord = new StringBuilder();
-        List<String> unicodeChars = splitUnicodeChars(text);
-        for (int i = 0; i < unicodeChars.size(); i++) {
-            String unicodeChar = unicodeChars.get(i);
-            logger.trace("Unicode char: {}", unicodeChar);
-            String previousChar = i > 0 ? unicodeChars.get(i - 1) : "  ";
-            if (endsWithVowelSign(unicodeChar)) {
-                convertedWord.append(convertCharWithVowelSign(unicodeChar, previousChar));
-            } else {
-                convertedWord.append(convertChar(unicodeChar));
-            }
-        }
-        return convertedWord.toString();
+        return Transliterator.DEFAULT.convert(text);
+    }
+
+    /**
+     * Converts the given text and appends the result to the given builder.
+     * <p>
+     * Produces the same result as converting the graphemes returned by {@link #splitUnicodeChars(String)}, but
+     * does it in a single pass over the text without allocating anything per character.
+     *
+     * @return the given builder
+     * @see Transliterator#convert(CharSequence, StringBuilder)
+     */
+    public static StringBuilder convert(CharSequence text, StringBuilder out)
+    {
+        return Transliterator.DEFAULT.convert(text, out);
+    }
+
+    /**
+     * Converts the given text and appends the result to the given {@link Appendable}.
+     *
+     * @see #convert(CharSequence, StringBuilder)
+     */
+    public static void convert(CharSequence text, Appendable out) throws IOException
+    {
+        Transliterator.DEFAULT.convert(text, out);
+    }
+
+    /**
+     * Converts the given text read from the given reader and writes the result to the given writer. The text is
+     * converted in chunks, so it can be of any size. Neither the reader nor the writer is closed.
+     */
+    public static void convert(Reader in, Writer out) throws IOException
+    {
+        Transliterator.DEFAULT.convert(in, out);
+    }
+
+    /**
+     * Converts the UTF-8 text read from the given input stream and writes the result as UTF-8 to the given output
+     * stream. Neither stream is closed.
+     */
+    public static void convert(InputStream in, OutputStream out) throws IOException
+    {
+        Transliterator.DEFAULT.convert(in, out);
+    }
+
+    /**
+     * Converts the text read from the given input stream and writes the result to the given output stream using
+     * the given charsets. Neither stream is closed.
+     */
+    public static void convert(InputStream in, Charset inputCharset, OutputStream out, Charset outputCharset)
+            throws IOException
+    {
+        Transliterator.DEFAULT.convert(in, inputCharset, out, outputCharset);
     }
 
     public static List<String> splitUnicodeChars(String input)
     {
-        logger.trace("Input string: {}", input);
+        boolean trace = logger.isTraceEnabled();
+        if (trace) {
+            logger.trace("Input string: {}", input);
+        }
         List<String> unicodeChars = new ArrayList<>();
         char[] chars = input.toCharArray();
         for (int i = 0; i < chars.length; i++) {
             int nextCharIndex = i + 1;
             if (nextCharIndex < chars.length) {
-                logger.trace("Preparing to add the char: {}", chars[i]);
+                if (trace) {
+                    logger.trace("Preparing to add the char: {}", chars[i]);
+                }
                 if (isSignAfterChar(chars[nextCharIndex])) {
                     unicodeChars.add(chars[i] + "" + chars[nextCharIndex]);
                 } else if (!isSignAfterChar(chars[i])) {
@@ -234,46 +211,66 @@ public class TamilScriptConverter
                 unicodeChars.add(chars[i] + "");
             }
         }
-        logger.trace("Unicode chars: {}", unicodeChars);
+        if (trace) {
+            logger.trace("Unicode chars: {}", unicodeChars);
+        }
         return trimUnicodeChars(unicodeChars);
     }
 
     public static String convertChar(String charToBeConverted)
     {
-        logger.trace("Converting the tamil char: {}", charToBeConverted);
-        String convertedString = charMap.get(charToBeConverted);
+        if (logger.isTraceEnabled()) {
+            logger.trace("Converting the tamil char: {}", charToBeConverted);
+        }
+        String convertedString = null;
+        if (charToBeConverted.length() == 1) {
+            convertedString = MappingTable.HOUSE_STYLE.getLetter(charToBeConverted.charAt(0));
+        } else if (charToBeConverted.length() == 2 && charToBeConverted.charAt(1) == PULLI) {
+            convertedString = MappingTable.HOUSE_STYLE.getDeadConsonant(charToBeConverted.charAt(0));
+        }
         return convertedString != null ? convertedString : charToBeConverted;
     }
 
     public static String convertChar(String charToBeConverted, String previousChar)
     {
-        logger.trace("Converting the tamil char \"{}\" whose previous char is \"{}\"", charToBeConverted, previousChar);
+        boolean trace = logger.isTraceEnabled();
+        if (trace) {
+            logger.trace("Converting the tamil char \"{}\" whose previous char is \"{}\"", charToBeConverted,
+                    previousChar);
+        }
         String convertedString = "";
         switch (previousChar) {
             case "ஞ்":
                 if (charToBeConverted.equals("ச")) {
                     convertedString = "";
                 } else {
-                    charMap.get(charToBeConverted);
+                    convertChar(charToBeConverted);
                 }
                 break;
             default:
-                charMap.get(charToBeConverted);
+                convertChar(charToBeConverted);
         }
-        logger.trace("Converted string: {}", convertedString);
-        return StringUtils.isBlank(convertedString) ? convertedString : charToBeConverted;
+        if (trace) {
+            logger.trace("Converted string: {}", convertedString);
+        }
+        return isBlank(convertedString) ? convertedString : charToBeConverted;
     }
 
     static String convertCharWithVowelSign(String unicodeChar, String previousChar)
     {
         if (unicodeChar.length() > 1) {
-            logger.trace("Unicode char: {}, previous char: {}", unicodeChar, previousChar);
+            boolean trace = logger.isTraceEnabled();
+            if (trace) {
+                logger.trace("Unicode char: {}, previous char: {}", unicodeChar, previousChar);
+            }
             String convertedChar = "";
             char[] chars = unicodeChar.toCharArray();
             char[] previousChars = previousChar.toCharArray();
             char firstCharPart = chars[0];
             char secondCharPart = chars[1];
-            logger.trace("First char part: {}, second char part: {}", firstCharPart, secondCharPart);
+            if (trace) {
+                logger.trace("First char part: {}, second char part: {}", firstCharPart, secondCharPart);
+            }
             switch (secondCharPart) {
                 case VOWEL_SIGN_AA:
                     return convertChar(firstCharPart + "") + "a";
@@ -296,8 +293,10 @@ public class TamilScriptConverter
                 case VOWEL_SIGN_E:
                     return convertChar(firstCharPart + "" + PULLI) + "e";
                 case VOWEL_SIGN_EE:
-                    logger.trace("Character has vowel sign {}", VOWEL_SIGN_EE);
-                    if (StringUtils.isBlank(previousChar) && firstCharPart == 'ச') {
+                    if (trace) {
+                        logger.trace("Character has vowel sign {}", VOWEL_SIGN_EE);
+                    }
+                    if (isBlank(previousChar) && firstCharPart == 'ச') {
                         return "sae";
                     }
                     return convertChar(firstCharPart + "" + PULLI) + "ae";
@@ -314,12 +313,12 @@ public class TamilScriptConverter
 
     static boolean isSignAfterChar(char tamilChar)
     {
-        return PULLI == tamilChar || VOWEL_SIGNS.contains(tamilChar);
+        return MappingTable.isSignAfterChar(tamilChar);
     }
 
     static boolean isVowelSign(char tamilChar)
     {
-        return VOWEL_SIGNS.contains(tamilChar);
+        return MappingTable.isVowelSign(tamilChar);
     }
 
     static boolean endsWithVowelSign(String unicodeChar)
@@ -329,9 +328,12 @@ public class TamilScriptConverter
 
     public static List<String> trimUnicodeChars(List<String> unicodeChars)
     {
+        boolean trace = logger.isTraceEnabled();
         if (unicodeChars.size() > 2) {
-            logger.trace("Preparing to trim unicode chars...");
-            logger.trace("Char at index 0: {}, char at index 1: {}", unicodeChars.get(0), unicodeChars.get(1));
+            if (trace) {
+                logger.trace("Preparing to trim unicode chars...");
+                logger.trace("Char at index 0: {}, char at index 1: {}", unicodeChars.get(0), unicodeChars.get(1));
+            }
             if (unicodeChars.get(0).equals("இ")) {
                 String secondChar = unicodeChars.get(1);
                 switch (secondChar) {
@@ -340,7 +342,9 @@ public class TamilScriptConverter
                         unicodeChars.remove(0);
                 }
             } else {
-                logger.trace("Nothing to trim");
+                if (trace) {
+                    logger.trace("Nothing to trim");
+                }
             }
         }
         return unicodeChars;
@@ -348,6 +352,6 @@ public class TamilScriptConverter
 
     public static File getTargetFile(File source)
     {
-        return new File(source.getParent() + File.separator + "converted", source.getName());
+        return new File(source.getParent() + File.separator + BatchConverter.TARGET_DIRECTORY_NAME, source.getName());
     }
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+package org.tamilscriptconverter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts Tamil text to Latin script using a {@link MappingTable}. A transliterator doesn't have any mutable
+ * state of its own, so a single instance can be shared by any number of threads without locking. Each conversion
+ * only adds its counts to {@link ConversionMetrics#GLOBAL}, whose counters don't make the threads contend.
+ *
+ * @since 1.0
+ */
+public final class Transliterator
+{
+    /**
+     * The transliterator using the house style romanisation
+     */
+    public static final Transliterator DEFAULT = new Transliterator(MappingTable.HOUSE_STYLE);
+    static final int STREAM_BUFFER_SIZE = 8192;
+    //the leading chars to trim are always found in the first 5 chars, which take at most 20 bytes
+    private static final int UTF8_TRIM_LENGTH = 20;
+    private final MappingTable mappingTable;
+    private final GraphemeAutomaton automaton;
+    private final byte[] utf8TrimmedChar;
+
+    public Transliterator(MappingTable mappingTable)
+    {
+        if (mappingTable == null) {
+            throw new IllegalArgumentException("Mapping table can't be null");
+        }
+        this.mappingTable = mappingTable;
+        this.automaton = GraphemeAutomaton.compile(mappingTable);
+        this.utf8TrimmedChar = mappingTable.getTrimmedChar() != 0 ?
+                String.valueOf(mappingTable.getTrimmedChar()).getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    public MappingTable getMappingTable()
+    {
+        return mappingTable;
+    }
+
+    GraphemeAutomaton getAutomaton()
+    {
+        return automaton;
+    }
+
+    public String convert(String text)
+    {
+        StringBuilder convertedWord = new StringBuilder(text.length() + 16);
+        convert(text, convertedWord);
+        return convertedWord.toString();
+    }
+
+    /**
+     * Converts the given text and appends the result to the given builder.
+     *
+     * @return the given builder
+     */
+    public StringBuilder convert(CharSequence text, StringBuilder out)
+    {
+        try {
+            convert(text, 0, text.length(), out);
+        } catch (IOException ex) {
+            throw new IllegalStateException("StringBuilder doesn't throw IOException", ex);
+        }
+        return out;
+    }
+
+    /**
+     * Converts the given text and appends the result to the given {@link Appendable}.
+     */
+    public void convert(CharSequence text, Appendable out) throws IOException
+    {
+        convert(text, 0, text.length(), out);
+    }
+
+    /**
+     * Converts the given text read from the given reader and writes the result to the given writer. The text is
+     * converted in chunks, so it can be of any size. Neither the reader nor the writer is closed.
+     */
+    public void convert(Reader in, Writer out) throws IOException
+    {
+        char[] buffer = new char[STREAM_BUFFER_SIZE];
+        StringBuilder convertedText = new StringBuilder(STREAM_BUFFER_SIZE * 2);
+        int length = 0;
+        int from = 0;
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            int count = in.read(buffer, length, buffer.length - length);
+            if (count < 0) {
+                endOfInput = true;
+            } else {
+                length += count;
+            }
+            //the last char is kept back until we know whether a sign follows it, and the leading chars can only be
+            //trimmed once there are enough of them
+            int to = endOfInput ? length : length - 1;
+            if (to <= from || (from == 0 && length < 5 && !endOfInput)) {
+                continue;
+            }
+            convert(CharBuffer.wrap(buffer, 0, length), from, to, convertedText);
+            out.append(convertedText);
+            convertedText.setLength(0);
+            //keep the chars the next chunk depends on
+            int keepFrom = Math.max(0, to - 2);
+            System.arraycopy(buffer, keepFrom, buffer, 0, length - keepFrom);
+            length -= keepFrom;
+            from = to - keepFrom;
+        }
+        out.flush();
+    }
+
+    /**
+     * Converts the UTF-8 text read from the given input stream and writes the result as UTF-8 to the given output
+     * stream. Neither stream is closed.
+     */
+    public void convert(InputStream in, OutputStream out) throws IOException
+    {
+        convert(in, StandardCharsets.UTF_8, out, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converts the text read from the given input stream and writes the result to the given output stream using
+     * the given charsets. Neither stream is closed.
+     */
+    public void convert(InputStream in, Charset inputCharset, OutputStream out, Charset outputCharset)
+            throws IOException
+    {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, outputCharset), STREAM_BUFFER_SIZE);
+        convert(new InputStreamReader(in, inputCharset), writer);
+    }
+
+    /**
+     * Converts the given text recording each step of the conversion, to debug it. Much slower than
+     * {@link #convert(String)}, which doesn't record anything.
+     */
+    public ConversionTrace trace(String text)
+    {
+        ConversionTrace trace = new ConversionTrace(text);
+        StringBuilder convertedText = new StringBuilder(text.length() + 16);
+        try {
+            convertGraphemes(text, 0, text.length(), convertedText, trace);
+        } catch (IOException ex) {
+            throw new IllegalStateException("StringBuilder doesn't throw IOException", ex);
+        }
+        trace.finish(convertedText.toString());
+        return trace;
+    }
+
+    /**
+     * Converts the graphemes starting in the given range of the text. The chars before the range are used to find
+     * the previous grapheme and the char after it to find whether the last char is followed by a sign, so that a
+     * text can be converted in several parts. The leading chars are trimmed only when the range starts at 0.
+     */
+    void convert(CharSequence text, int from, int to, Appendable out) throws IOException
+    {
+        if (from == 0) {
+            automaton.convert(text, mappingTable.countLeadingCharsToTrim(text), to, ' ', true, out);
+        } else if (from < text.length() && MappingTable.isSignAfterChar(text.charAt(from))) {
+            automaton.convert(text, from, to, text.charAt(from - 1), false, out);
+        } else if (!MappingTable.isSignAfterChar(text.charAt(from - 1))) {
+            char previousChar = text.charAt(from - 1);
+            automaton.convert(text, from, to, previousChar, Character.isWhitespace(previousChar), out);
+        } else if (from > 1) {
+            automaton.convert(text, from, to, text.charAt(from - 2), false, out);
+        } else {
+            automaton.convert(text, from, to, ' ', true, out);
+        }
+    }
+
+    /**
+     * @return the number of bytes which is enough for the romanisation of a UTF-8 text of the given length
+     */
+    int getMaxUtf8Length(int byteCount)
+    {
+        return automaton.getMaxUtf8Length(byteCount);
+    }
+
+    /**
+     * Converts the UTF-8 text between the given indexes like {@link #convert(String)} converts the decoded text, and
+     * writes the UTF-8 result to the given array, which must have room for {@link #getMaxUtf8Length(int)} bytes.
+     *
+     * @return the index after the result in the given array, or -1 if the text isn't valid UTF-8
+     */
+    int convertUtf8(byte[] text, int from, int to, byte[] out, int offset)
+    {
+        return automaton.convertUtf8(text, from + countLeadingBytesToTrim(text, from, to), to, ' ', true, out,
+                offset);
+    }
+
+    private int countLeadingBytesToTrim(byte[] text, int from, int to)
+    {
+        if (utf8TrimmedChar == null || to - from < utf8TrimmedChar.length) {
+            return 0;
+        }
+        //the sign dropped before the char to trim, if any, is trimmed along with it
+        int start = from;
+        int charLength = GraphemeAutomaton.getUtf8CharLength(text, from, to);
+        if (charLength > 0 && charLength <= 3 &&
+                MappingTable.isSignAfterChar(GraphemeAutomaton.decodeUtf8Char(text, from, charLength))) {
+            start += charLength;
+        }
+        if (to - start < utf8TrimmedChar.length) {
+            return 0;
+        }
+        for (int i = 0; i < utf8TrimmedChar.length; i++) {
+            if (text[start + i] != utf8TrimmedChar[i]) {
+                return 0;
+            }
+        }
+        String leadingText = new String(text, from, Math.min(to - from, UTF8_TRIM_LENGTH), StandardCharsets.UTF_8);
+        return mappingTable.countLeadingCharsToTrim(leadingText) > 0 ? start - from + utf8TrimmedChar.length : 0;
+    }
+
+    /**
+     * Converts the graphemes starting in the given range of the text one at a time, looking up the mapping table for
+     * each of them. Gives the same result as {@link #convert(CharSequence, int, int, Appendable)}, which runs the
+     * mapping table compiled into an automaton, but can record the steps of the conversion.
+     *
+     * @param trace records the steps of the conversion if not null, it is the only check done per grapheme for it
+     */
+    void convertGraphemes(CharSequence text, int from, int to, Appendable out, ConversionTrace trace)
+            throws IOException
+    {
+        int length = text.length();
+        //state of the previous grapheme, the start of the text behaves like a blank
+        char previousChar = ' ';
+        boolean previousBlank = true;
+        int i = from;
+        if (from == 0) {
+            i = mappingTable.countLeadingCharsToTrim(text);
+            if (trace != null) {
+                trace.trim(i);
+            }
+        } else if (from < length && MappingTable.isSignAfterChar(text.charAt(from))) {
+            previousChar = text.charAt(from - 1);
+            previousBlank = false;
+        } else if (!MappingTable.isSignAfterChar(text.charAt(from - 1))) {
+            previousChar = text.charAt(from - 1);
+            previousBlank = Character.isWhitespace(previousChar);
+        } else if (from > 1) {
+            previousChar = text.charAt(from - 2);
+            previousBlank = false;
+        }
+        int graphemeCount = 0;
+        int unmappedCharCount = 0;
+        for (; i < to; i++) {
+            char currentChar = text.charAt(i);
+            if (i + 1 < length && MappingTable.isSignAfterChar(text.charAt(i + 1))) {
+                String syllable = appendGrapheme(currentChar, text.charAt(i + 1), previousChar, previousBlank, out);
+                if (syllable == null) {
+                    unmappedCharCount++;
+                }
+                if (trace != null) {
+                    trace.add(text.subSequence(i, i + 2).toString(), syllable, previousChar, previousBlank);
+                }
+                previousBlank = false;
+            } else if (!MappingTable.isSignAfterChar(currentChar)) {
+                String letter = mappingTable.getLetter(currentChar);
+                if (letter != null) {
+                    out.append(letter);
+                } else {
+                    out.append(currentChar);
+                    if (MappingTable.isTamil(currentChar)) {
+                        unmappedCharCount++;
+                    }
+                }
+                if (trace != null) {
+                    trace.add(String.valueOf(currentChar), letter, previousChar, previousBlank);
+                }
+                previousBlank = Character.isWhitespace(currentChar);
+            } else {
+                continue;
+            }
+            previousChar = currentChar;
+            graphemeCount++;
+        }
+        ConversionMetrics.GLOBAL.addGraphemes(graphemeCount, unmappedCharCount);
+    }
+
+    /**
+     * @return the romanisation of the grapheme, or null if it doesn't have one and is appended as it is
+     */
+    private String appendGrapheme(char base, char sign, char previousChar, boolean previousBlank, Appendable out)
+            throws IOException
+    {
+        String romanisation = null;
+        if (sign == TamilScriptConverter.PULLI) {
+            romanisation = mappingTable.getDeadConsonant(base);
+        } else if (mappingTable.hasVowelSign(sign)) {
+            romanisation = mappingTable.getSyllable(base, sign, previousChar, previousBlank);
+        }
+        if (romanisation != null) {
+            out.append(romanisation);
+        } else {
+            out.append(base).append(sign);
+        }
+        return romanisation;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Transliterator[" + mappingTable + "]";
+    }
+}
@@ -0,0 +1,255 @@
+package org.tamilscriptconverter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Converts the lines of UTF-8 songs to the UTF-8 converted file format without decoding them, giving the same result
+ * as {@link SongFormat#writeLine(String, java.io.Writer)} on the decoded lines. The Tamil line is copied as it is
+ * between its formatting tags and its romanisation is written by
+ * {@link Transliterator#convertUtf8(byte[], int, int, byte[], int)} straight after it in the output buffer, where it
+ * is trimmed and capitalised in place.
+ * <p>
+ * Only the lines which may start a section are decoded to parse their header, and the ones starting a section are
+ * written the regular way, their header being removed from their romanisation. A line which isn't valid UTF-8 is
+ * decoded and written the regular way, and so is the romanisation of a line when it isn't ASCII, since it then keeps
+ * chars the mapping table doesn't convert.
+ * <p>
+ * A converter holds its buffers, so it must only be used by one thread at a time.
+ *
+ * @since 1.0
+ */
+final class Utf8LineConverter
+{
+    private static final int BUFFER_SIZE = 64 << 10;
+    private static final byte[] LINE_SEPARATOR = {'\r', '\n'};
+    private static final byte[] START_TAG = "{y}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] END_TAG = "{/y}".getBytes(StandardCharsets.UTF_8);
+    private final SongFormat format;
+    private final Transliterator transliterator;
+    private final SectionHeaderParser sectionHeaderParser;
+    private byte[] output = new byte[BUFFER_SIZE];
+    private int outputLength;
+    private boolean skipLineFeed;
+    private long lineCount;
+
+    Utf8LineConverter(SongFormat format)
+    {
+        this.format = format;
+        this.transliterator = format.getTransliterator();
+        this.sectionHeaderParser = format.getSectionHeaderParser();
+    }
+
+    /**
+     * Converts the UTF-8 lines read from the given stream, split the way {@link java.io.BufferedReader#readLine()}
+     * splits them, and writes them to the given stream. Neither stream is closed.
+     *
+     * @return the number of lines converted
+     */
+    long convert(InputStream in, OutputStream out) throws IOException
+    {
+        reset();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length = 0;
+        int count;
+        while ((count = in.read(buffer, length, buffer.length - length)) >= 0) {
+            length += count;
+            int lineStart = writeLines(buffer, 0, length, out);
+            length -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, length);
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        finish(buffer, 0, length, out);
+        return lineCount;
+    }
+
+    /**
+     * Converts the UTF-8 lines between the given indexes and writes them to the given stream, which isn't closed.
+     *
+     * @return the number of lines converted
+     */
+    long convert(byte[] bytes, int from, int to, OutputStream out) throws IOException
+    {
+        reset();
+        finish(bytes, writeLines(bytes, from, to, out), to, out);
+        return lineCount;
+    }
+
+    private void reset()
+    {
+        outputLength = 0;
+        skipLineFeed = false;
+        lineCount = 0;
+    }
+
+    /**
+     * Writes the complete lines between the given indexes.
+     *
+     * @return the start of the last line, which isn't complete yet
+     */
+    private int writeLines(byte[] bytes, int from, int to, OutputStream out) throws IOException
+    {
+        int lineStart = from;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (b == '\n') {
+                    lineStart = i + 1;
+                    continue;
+                }
+            }
+            if (b == '\n' || b == '\r') {
+                writeLine(bytes, lineStart, i);
+                if (outputLength >= BUFFER_SIZE) {
+                    flush(out);
+                }
+                skipLineFeed = b == '\r';
+                lineStart = i + 1;
+            }
+        }
+        return lineStart;
+    }
+
+    private void finish(byte[] bytes, int lineStart, int to, OutputStream out) throws IOException
+    {
+        if (to > lineStart) {
+            writeLine(bytes, lineStart, to);
+        }
+        flush(out);
+    }
+
+    private void flush(OutputStream out) throws IOException
+    {
+        out.write(output, 0, outputLength);
+        outputLength = 0;
+    }
+
+    /**
+     * Writes the given UTF-8 line followed by its converted text to the output buffer.
+     */
+    void writeLine(byte[] line, int from, int to)
+    {
+        lineCount++;
+        if (isBlank(line, from, to)) {
+            write(line, from, to - from);
+            write(LINE_SEPARATOR, 0, LINE_SEPARATOR.length);
+            return;
+        }
+        int lineStart = outputLength;
+        if (mayStartSection(line, from, to)) {
+            String decodedLine = new String(line, from, to - from, StandardCharsets.UTF_8);
+            if (sectionHeaderParser.parse(decodedLine) != null) {
+                //the header is removed from the romanisation of the decoded line, once per section
+                writeDecodedLine(decodedLine);
+                return;
+            }
+        }
+        write(START_TAG, 0, START_TAG.length);
+        write(line, from, to - from);
+        write(END_TAG, 0, END_TAG.length);
+        write(LINE_SEPARATOR, 0, LINE_SEPARATOR.length);
+        ensureCapacity(transliterator.getMaxUtf8Length(to - from) + LINE_SEPARATOR.length);
+        int convertedStart = outputLength;
+        int convertedEnd = transliterator.convertUtf8(line, from, to, output, convertedStart);
+        //a romanisation starting with a number loses it, which only happens when the line starts with dropped chars
+        if (convertedEnd < 0 || convertedEnd > convertedStart && output[convertedStart] >= '0' &&
+                output[convertedStart] <= '9') {
+            outputLength = lineStart;
+            writeDecodedLine(new String(line, from, to - from, StandardCharsets.UTF_8));
+            return;
+        }
+        outputLength = formatConvertedText(convertedStart, convertedEnd);
+        write(LINE_SEPARATOR, 0, LINE_SEPARATOR.length);
+    }
+
+    /**
+     * Formats the converted text of a line without section header between the given indexes of the output buffer
+     * in place, trimming and capitalising it.
+     *
+     * @return the end of the formatted text
+     */
+    private int formatConvertedText(int start, int end)
+    {
+        for (int i = start; i < end; i++) {
+            if (output[i] < 0) {
+                String text = new String(output, start, end - start, StandardCharsets.UTF_8);
+                byte[] formattedText = SectionHeaderParser.trimAndCapitalise(text).getBytes(StandardCharsets.UTF_8);
+                outputLength = start;
+                write(formattedText, 0, formattedText.length);
+                return outputLength;
+            }
+        }
+        int textStart = start;
+        while (textStart < end && output[textStart] <= ' ') {
+            textStart++;
+        }
+        while (end > textStart && output[end - 1] <= ' ') {
+            end--;
+        }
+        System.arraycopy(output, textStart, output, start, end - textStart);
+        end = start + end - textStart;
+        if (end > start && output[start] >= 'a' && output[start] <= 'z') {
+            output[start] -= 'a' - 'A';
+        }
+        return end;
+    }
+
+    private void writeDecodedLine(String line)
+    {
+        StringWriter writer = new StringWriter(line.length() * 3);
+        try {
+            format.writeLine(line, writer);
+        } catch (IOException ex) {
+            throw new IllegalStateException("StringWriter doesn't throw IOException", ex);
+        }
+        byte[] bytes = writer.toString().getBytes(StandardCharsets.UTF_8);
+        write(bytes, 0, bytes.length);
+    }
+
+    private void write(byte[] bytes, int from, int length)
+    {
+        ensureCapacity(length);
+        System.arraycopy(bytes, from, output, outputLength, length);
+        outputLength += length;
+    }
+
+    private void ensureCapacity(int length)
+    {
+        if (outputLength + length > output.length) {
+            output = Arrays.copyOf(output, Math.max(output.length * 2, outputLength + length));
+        }
+    }
+
+    /**
+     * @return whether the given line only has whitespace chars, like
+     * {@link TamilScriptConverter#isBlank(CharSequence)}
+     */
+    private static boolean isBlank(byte[] line, int from, int to)
+    {
+        int i = from;
+        while (i < to) {
+            int length = GraphemeAutomaton.getUtf8CharLength(line, i, to);
+            //neither the chars outside the basic plane nor the malformed bytes, decoded as U+FFFD, are blank
+            if (length < 0 || length > 3 ||
+                    !Character.isWhitespace(GraphemeAutomaton.decodeUtf8Char(line, i, length))) {
+                return false;
+            }
+            i += length;
+        }
+        return true;
+    }
+
+    private boolean mayStartSection(byte[] line, int from, int to)
+    {
+        int length = GraphemeAutomaton.getUtf8CharLength(line, from, to);
+        return length < 0 || length > 3 ||
+                sectionHeaderParser.mayStartSection(GraphemeAutomaton.decodeUtf8Char(line, from, length));
+    }
+}
@@ -0,0 +1,202 @@
+package org.tamilscriptconverter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @since 1.0
+ */
+public class BatchConverterTest
+{
+    private final File directory = new File("target/batch-converter-test");
+    private final Path source = Paths.get("src/test/resources/ejamaananae-source.txt");
+
+    @Before
+    public void setUp() throws IOException
+    {
+        delete(directory);
+        new File(directory, "nested").mkdirs();
+        Files.copy(source, new File(directory, "song1.txt").toPath());
+        Files.copy(source, new File(directory, "song2.txt").toPath());
+        Files.copy(source, new File(directory, "nested/song3.txt").toPath());
+    }
+
+    @Test
+    public void testConvert() throws IOException
+    {
+        ConversionSummary summary = new BatchConverter(2).convert(directory);
+        assertEquals(3, summary.getFileCount());
+        assertEquals(0, summary.getFailedFileCount());
+        assertEquals(3 * Files.readAllLines(source, StandardCharsets.UTF_8).size(), summary.getLineCount());
+        assertEquals(3 * source.toFile().length(), summary.getByteCount());
+        assertTrue(new File(directory, "converted/song1.txt").isFile());
+        assertTrue(new File(directory, "nested/converted/song3.txt").isFile());
+    }
+
+    @Test
+    public void testConvertSkipsConvertedFiles() throws IOException
+    {
+        new BatchConverter(2).convert(directory);
+        assertEquals(3, new BatchConverter(2).convert(directory).getFileCount());
+        assertFalse(new File(directory, "converted/converted").exists());
+    }
+
+    @Test
+    public void testConvertContinuesAfterFailure() throws IOException
+    {
+        new File(directory, "converted/song2.txt").mkdirs();
+        ConversionSummary summary = new BatchConverter(1).convert(directory);
+        assertEquals(2, summary.getFileCount());
+        assertEquals(1, summary.getFailedFileCount());
+    }
+
+    @Test
+    public void testConvertIncrementally() throws IOException
+    {
+        BatchConverter batchConverter = new BatchConverter(2);
+        batchConverter.setIncremental(true);
+        assertEquals(3, batchConverter.convert(directory).getFileCount());
+        assertTrue(new File(directory, "converted/" + ConversionManifest.FILE_NAME).isFile());
+
+        ConversionSummary summary = batchConverter.convert(directory);
+        assertEquals(0, summary.getFileCount());
+        assertEquals(3, summary.getSkippedFileCount());
+
+        //touched without being modified
+        File song1 = new File(directory, "song1.txt");
+        song1.setLastModified(song1.lastModified() - 10000);
+        Files.write(new File(directory, "song2.txt").toPath(), "புதிய பாடல்".getBytes(StandardCharsets.UTF_8));
+        new File(directory, "nested/converted/song3.txt").delete();
+        summary = batchConverter.convert(directory);
+        assertEquals(2, summary.getFileCount());
+        assertEquals(1, summary.getSkippedFileCount());
+        assertTrue(new String(Files.readAllBytes(new File(directory, "converted/song2.txt").toPath()),
+                StandardCharsets.UTF_8).contains("Puthiya paatal"));
+
+        new File(directory, "song1.txt").delete();
+        summary = batchConverter.convert(directory);
+        assertEquals(1, summary.getDeletedFileCount());
+        assertEquals(2, summary.getSkippedFileCount());
+        assertFalse(new File(directory, "converted/song1.txt").exists());
+    }
+
+    @Test
+    public void testConvertIncrementallyAfterMappingTableChange() throws IOException
+    {
+        BatchConverter batchConverter = new BatchConverter(2);
+        batchConverter.setIncremental(true);
+        batchConverter.convert(directory);
+        batchConverter.setSongFormat(new SongFormat(new Transliterator(MappingTable.ISO_15919),
+                SectionHeaderParser.DEFAULT));
+        assertEquals(3, batchConverter.convert(directory).getFileCount());
+        batchConverter.setSongFormat(new SongFormat(new Transliterator(MappingTable.ISO_15919),
+                SectionHeaderParser.valueOf("Chorus")));
+        assertEquals(3, batchConverter.convert(directory).getFileCount());
+        assertEquals(3, batchConverter.convert(directory).getSkippedFileCount());
+    }
+
+    @Test
+    public void testRemoveDeletedSourcesAfterMappingTableChange() throws IOException
+    {
+        BatchConverter batchConverter = new BatchConverter(2);
+        batchConverter.setIncremental(true);
+        batchConverter.convert(directory);
+        new File(directory, "song1.txt").delete();
+        batchConverter.setSongFormat(new SongFormat(new Transliterator(MappingTable.ISO_15919),
+                SectionHeaderParser.DEFAULT));
+        ConversionSummary summary = batchConverter.convert(directory);
+        assertEquals(1, summary.getDeletedFileCount());
+        assertEquals(2, summary.getFileCount());
+        assertFalse(new File(directory, "converted/song1.txt").exists());
+    }
+
+    @Test
+    public void testRecordConvertedContent() throws IOException
+    {
+        File song1 = new File(directory, "song1.txt");
+        ConversionManifest manifest = ConversionManifest.load(directory, "1");
+        TamilScriptConverter.convertFile(song1);
+        //modified while it was converted
+        manifest.add(song1, song1.length(), song1.lastModified() - 10000, ConversionManifest.hash(new byte[0]));
+        assertFalse(manifest.isUpToDate(song1));
+        manifest.add(song1, song1.length(), song1.lastModified() - 10000,
+                ConversionManifest.hash(Files.readAllBytes(song1.toPath())));
+        assertTrue(manifest.isUpToDate(song1));
+        assertEquals(ConversionManifest.hash(song1), ConversionManifest.hash(Files.readAllBytes(song1.toPath())));
+    }
+
+    @Test
+    public void testConvertManySmallFiles() throws IOException
+    {
+        List<String> lines = Files.readAllLines(source, StandardCharsets.UTF_8);
+        for (int i = 0; i < 300; i++) {
+            Files.write(new File(directory, "nested/small" + i + ".txt").toPath(),
+                    lines.subList(i % lines.size(), lines.size()), StandardCharsets.UTF_8);
+        }
+        ConversionSummary summary = new BatchConverter(2).convert(directory);
+        assertEquals(303, summary.getFileCount());
+        assertEquals(0, summary.getFailedFileCount());
+        File expected = new File(directory, "expected.txt");
+        for (int i = 0; i < 300; i += 7) {
+            File small = new File(directory, "nested/small" + i + ".txt");
+            TamilScriptConverter.convertFile(small, expected);
+            assertTrue(Arrays.equals(Files.readAllBytes(expected.toPath()),
+                    Files.readAllBytes(TamilScriptConverter.getTargetFile(small).toPath())));
+        }
+    }
+
+    @Test
+    public void testConvertLargeFilesAsTheyAreRead() throws IOException, InterruptedException
+    {
+        List<File> files = BatchConverter.listSourceFiles(directory);
+        ConversionSummary summary = new ConversionSummary();
+        new ConversionPipeline(2, SongFormat.DEFAULT, source.toFile().length() - 1).convert(files, null, summary);
+        assertEquals(3, summary.getFileCount());
+        assertEquals(0, summary.getFailedFileCount());
+        File expected = new File(directory, "expected.txt");
+        TamilScriptConverter.convertFile(source.toFile(), expected);
+        for (File file : files) {
+            assertEquals(Arrays.toString(Files.readAllBytes(expected.toPath())),
+                    Arrays.toString(Files.readAllBytes(TamilScriptConverter.getTargetFile(file).toPath())));
+        }
+    }
+
+    @Test
+    public void testListSourceFiles()
+    {
+        new File(directory, "converted").mkdirs();
+        List<File> files = BatchConverter.listSourceFiles(directory);
+        assertEquals(3, files.size());
+        assertTrue(files.containsAll(Arrays.asList(new File(directory, "song1.txt"), new File(directory, "nested/song3.txt"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreadCount()
+    {
+        new BatchConverter(0);
+    }
+
+    private static void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
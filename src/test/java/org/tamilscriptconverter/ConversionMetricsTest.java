@@ -0,0 +1,79 @@
+package org.tamilscriptconverter;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @since 1.0
+ */
+public class ConversionMetricsTest
+{
+    private final ConversionMetrics metrics = ConversionMetrics.GLOBAL;
+
+    @Test
+    public void testCountGraphemes()
+    {
+        long graphemeCount = metrics.getGraphemeCount();
+        long unmappedCharCount = metrics.getUnmappedCharCount();
+        TamilScriptConverter.convert("அம்மா x");
+        assertEquals(graphemeCount + 5, metrics.getGraphemeCount());
+        assertEquals(unmappedCharCount, metrics.getUnmappedCharCount());
+        //ஹ isn't in the house style, neither is the au vowel sign
+        TamilScriptConverter.convert("ஹ பௌ ஃ");
+        assertEquals(unmappedCharCount + 3, metrics.getUnmappedCharCount());
+    }
+
+    @Test
+    public void testCountFiles() throws IOException
+    {
+        File source = new File("src/test/resources/ejamaananae-source.txt");
+        long lineCount = metrics.getLineCount();
+        long byteCount = metrics.getByteCount();
+        long fileCount = metrics.getFileCount();
+        TamilScriptConverter.convertFile(source, new File("target/metrics/ejamaananae-source.txt"));
+        MappedFileConverter.convertFile(source, new File("target/metrics/mapped.txt"));
+        int lines = Files.readAllLines(source.toPath(), StandardCharsets.UTF_8).size();
+        assertEquals(lineCount + 2 * lines, metrics.getLineCount());
+        assertEquals(byteCount + 2 * source.length(), metrics.getByteCount());
+        assertEquals(fileCount + 2, metrics.getFileCount());
+        assertTrue(metrics.getMaxFileConversionMillis() > 0);
+    }
+
+    @Test
+    public void testLatencyHistogram()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0.0, histogram.getPercentileMillis(50));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMeanMillis(), 0.001);
+        assertEquals(100.0, histogram.getMaxMillis(), 0.001);
+        double median = histogram.getPercentileMillis(50);
+        assertTrue(String.valueOf(median), median >= 50 && median <= 100);
+        assertEquals(100.0, histogram.getPercentileMillis(100), 0.001);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void testRegisterMBean() throws Exception
+    {
+        ConversionMetrics.registerGlobal();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(metrics.getGraphemeCount(), server.getAttribute(
+                new ObjectName("org.tamilscriptconverter:type=ConversionMetrics"), "GraphemeCount"));
+    }
+}
@@ -0,0 +1,165 @@
+package org.tamilscriptconverter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * @since 1.0
+ */
+public class ConversionServerTest
+{
+    private ConversionServer server;
+
+    static {
+        //disconnects the slow clients quickly, set before the first server of the JVM is created
+        System.setProperty(ConversionServer.REQUEST_TIMEOUT_PROPERTY, "1");
+    }
+
+    @Before
+    public void setUp() throws IOException
+    {
+        server = new ConversionServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 0,
+                SongFormat.DEFAULT);
+        server.start();
+    }
+
+    @After
+    public void tearDown()
+    {
+        server.stop(0);
+    }
+
+    @Test
+    public void testConvert() throws IOException
+    {
+        String text = new String(Files.readAllBytes(Paths.get("src/test/resources/ejamaananae-source.txt")),
+                StandardCharsets.UTF_8);
+        HttpURLConnection connection = post("/convert", text);
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(TamilScriptConverter.convert(text), read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testBatch() throws IOException
+    {
+        HttpURLConnection connection = post("/batch", "இயேசு ராஜனே\r\nஇரத்தம் ஜெயம்\n\nசேர்");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("yaesu raajanae\nraththam jeyam\n\nsaer\n", read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testSong() throws IOException
+    {
+        String text = new String(Files.readAllBytes(Paths.get("src/test/resources/ejamaananae-source.txt")),
+                StandardCharsets.UTF_8);
+        HttpURLConnection connection = post("/song", text);
+        assertEquals(200, connection.getResponseCode());
+        //the expected file has Unix line endings and no line ending at the end
+        assertEquals(new String(Files.readAllBytes(Paths.get("src/test/resources/ejamaananae-expected.txt")),
+                StandardCharsets.UTF_8) + "\n", read(connection.getInputStream()).replace("\r\n", "\n"));
+    }
+
+    @Test
+    public void testHealth() throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) url("/health").openConnection();
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("OK\n", read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testConvertOnlyAllowsPost() throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) url("/convert").openConnection();
+        assertEquals(405, connection.getResponseCode());
+    }
+
+    @Test
+    public void testRejectsWhenSaturated() throws Exception
+    {
+        //keeps the only thread busy waiting for the rest of the body
+        try (Socket socket = new Socket(server.getAddress().getAddress(), server.getAddress().getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /convert HTTP/1.1\r\nHost: localhost\r\nContent-Length: 100\r\n\r\nஅ")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.getActiveRequestCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            HttpURLConnection connection = post("/batch", "அம்மா");
+            assertEquals(ConversionServer.TOO_MANY_REQUESTS, connection.getResponseCode());
+            assertEquals("1", connection.getHeaderField("Retry-After"));
+        }
+    }
+
+    @Test
+    public void testDisconnectsSlowClients() throws Exception
+    {
+        try (Socket socket = new Socket(server.getAddress().getAddress(), server.getAddress().getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /convert HTTP/1.1\r\nHost: localhost\r\nContent-Length: 100\r\n\r\nஅ")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            //the thread is released once the client has been disconnected, while it is still connected
+            long deadline = System.currentTimeMillis() + 10000;
+            while (server.getActiveRequestCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            while (server.getActiveRequestCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            HttpURLConnection connection = post("/batch", "அம்மா");
+            assertEquals(200, connection.getResponseCode());
+            assertEquals("ammaa\n", read(connection.getInputStream()));
+        }
+    }
+
+    private URL url(String path) throws IOException
+    {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path)
+                .toURL();
+    }
+
+    private HttpURLConnection post(String path, String body) throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) url(path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "text/plain; charset=UTF-8");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private static String read(InputStream in) throws IOException
+    {
+        try (InputStream input = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = input.read(buffer)) > 0) {
+                bytes.write(buffer, 0, count);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
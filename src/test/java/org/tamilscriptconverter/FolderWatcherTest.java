@@ -0,0 +1,130 @@
+package org.tamilscriptconverter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @since 1.0
+ */
+public class FolderWatcherTest
+{
+    private static final String CONVERTED_TEXT = "{y}இயேசு ராஜனே{/y}\r\nYaesu raajanae\r\n";
+    private static final long TIMEOUT_MILLIS = 10000;
+    private final File directory = new File("target/watch");
+    private FolderWatcher watcher;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        delete(directory);
+        directory.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void testConvertFilesChangedBeforeStarting() throws Exception
+    {
+        File converted = new File(directory, "converted.txt");
+        write(converted, "அன்பு");
+        TamilScriptConverter.convertFile(converted);
+        File changed = new File(directory, "changed.txt");
+        write(changed, "இயேசு ராஜனே");
+        startWatcher(10);
+        awaitConversion(changed, CONVERTED_TEXT);
+        Thread.sleep(200);
+        assertEquals(1, watcher.getConvertedFileCount());
+    }
+
+    @Test
+    public void testConvertCreatedAndModifiedFiles() throws Exception
+    {
+        startWatcher(10);
+        File file = new File(directory, "song.txt");
+        write(file, "அன்பு");
+        awaitConversion(file, "{y}அன்பு{/y}\r\nAnpu\r\n");
+        write(file, "இயேசு ராஜனே");
+        awaitConversion(file, CONVERTED_TEXT);
+        File subDirectory = new File(directory, "new/songs");
+        subDirectory.mkdirs();
+        File nestedFile = new File(subDirectory, "nested.txt");
+        write(nestedFile, "இயேசு ராஜனே");
+        awaitConversion(nestedFile, CONVERTED_TEXT);
+    }
+
+    @Test
+    public void testConvertBurstOfChangesOnce() throws Exception
+    {
+        startWatcher(300);
+        File file = new File(directory, "song.txt");
+        for (int i = 0; i < 5; i++) {
+            write(file, i < 4 ? "அன்பு " + i : "இயேசு ராஜனே");
+        }
+        awaitConversion(file, CONVERTED_TEXT);
+        //writing the converted file mustn't trigger another conversion
+        Thread.sleep(600);
+        assertEquals(1, watcher.getConvertedFileCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWatchFile() throws IOException
+    {
+        new FolderWatcher(new File("src/test/resources/ejamaananae-source.txt"), 1);
+    }
+
+    private void startWatcher(long debounceDelayMillis) throws IOException
+    {
+        watcher = new FolderWatcher(directory, 2);
+        watcher.setDebounceDelay(debounceDelayMillis, TimeUnit.MILLISECONDS);
+        watcher.start();
+    }
+
+    private static void awaitConversion(File source, String expectedText) throws Exception
+    {
+        File target = TamilScriptConverter.getTargetFile(source);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        String text = null;
+        while (System.currentTimeMillis() < deadline) {
+            if (target.isFile()) {
+                text = new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8);
+                if (expectedText.equals(text)) {
+                    return;
+                }
+            }
+            Thread.sleep(20);
+        }
+        assertEquals(expectedText, text);
+    }
+
+    private static void write(File file, String text) throws IOException
+    {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        assertTrue(!file.exists() || file.delete());
+    }
+}
@@ -0,0 +1,91 @@
+package org.tamilscriptconverter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @since 1.0
+ */
+public class GoldenCorpusCheckerTest
+{
+    private final File directory = new File("target/golden");
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory.mkdirs();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCheckTestResources() throws IOException
+    {
+        List<GoldenCorpusResult> results = new GoldenCorpusChecker(2).check(new File("src/test/resources"));
+        assertEquals(1, results.size());
+        GoldenCorpusResult result = results.get(0);
+        assertEquals("ejamaananae", result.getName());
+        assertTrue(result.getMismatches().toString(), result.isMatching());
+        assertEquals(Files.readAllLines(Paths.get("src/test/resources/ejamaananae-source.txt"),
+                StandardCharsets.UTF_8).size(), result.getLineCount());
+        assertTrue(result.getLinesPerSecond() > 0);
+    }
+
+    @Test
+    public void testReportMismatchingGrapheme() throws IOException
+    {
+        write("song-source.txt", "என் இயேசு ராஜனே", "அன்பு");
+        write("song-expected.txt", "{y}என் இயேசு ராஜனே{/y}", "En iyaesu rajanae", "{y}அன்பு{/y}", "Anpu",
+                "extra");
+        List<GoldenCorpusResult> results = new GoldenCorpusChecker(1).check(directory);
+        List<GoldenCorpusResult.Mismatch> mismatches = results.get(0).getMismatches();
+        assertEquals(2, mismatches.size());
+        GoldenCorpusResult.Mismatch mismatch = mismatches.get(0);
+        assertEquals(2, mismatch.getLineNumber());
+        assertEquals("En iyaesu raajanae", mismatch.getActualLine());
+        assertEquals("ரா", mismatch.getGrapheme());
+        assertEquals("raa", mismatch.getRomanisation());
+        assertEquals("raj", mismatch.getExpectedRomanisation());
+        assertEquals(5, mismatches.get(1).getLineNumber());
+        assertNull(mismatches.get(1).getActualLine());
+        assertNull(mismatches.get(1).getGrapheme());
+    }
+
+    @Test
+    public void testAppendResults() throws IOException
+    {
+        write("a-source.txt", "அம்மா");
+        write("a-expected.txt", "{y}அம்மா{/y}", "Ammaa");
+        write("b-source.txt", "அப்பா");
+        GoldenCorpusChecker checker = new GoldenCorpusChecker(2);
+        List<GoldenCorpusResult> results = checker.check(directory);
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).isMatching());
+        File resultsFile = new File(directory, "results.tsv");
+        checker.appendResults(results, resultsFile);
+        checker.appendResults(results, resultsFile);
+        List<String> lines = Files.readAllLines(resultsFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("time\tcorpus\tlines"));
+        assertEquals("a", lines.get(1).split("\t")[1]);
+        assertEquals("1", lines.get(2).split("\t")[2]);
+    }
+
+    private void write(String name, String... lines) throws IOException
+    {
+        Files.write(new File(directory, name).toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+}
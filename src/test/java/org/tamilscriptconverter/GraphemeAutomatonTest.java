@@ -0,0 +1,82 @@
+package org.tamilscriptconverter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Checks that the compiled automaton converts the text exactly like the mapping table looked up grapheme by grapheme.
+ *
+ * @since 1.0
+ */
+public class GraphemeAutomatonTest
+{
+    private static final String CUSTOM_MAPPING = "க ka\nச sa\nம ma\nா +aa\nி i\nு u\nே ae\nக் k\n" +
+            "கா KAA ^\nகு ku !ம\nசு su !ச\nமி mi !க\n%trim ம க\n";
+
+    @Test
+    public void testConvertLikeMappingTable() throws IOException
+    {
+        Transliterator custom = new Transliterator(MappingTable.load("custom", new StringReader(CUSTOM_MAPPING)));
+        Transliterator[] transliterators = {Transliterator.DEFAULT, new Transliterator(MappingTable.ISO_15919),
+                custom};
+        String song = new String(Files.readAllBytes(Paths.get("src/test/resources/ejamaananae-source.txt")),
+                StandardCharsets.UTF_8);
+        String[] texts = {song, "", "இ", "இயே", "இயேசு", "ா", "்ம", "xா", "x்", " ி", "\tு", "சே", " சே", "சசு",
+                "ச்சு", "காி", "ாி்", "மக", "மகா", "கமி", "கா கா", "மகு", "க்கு"};
+        for (Transliterator transliterator : transliterators) {
+            for (String text : texts) {
+                assertConvertedLikeMappingTable(transliterator, text);
+            }
+        }
+        Random random = new Random(15);
+        char[] chars = new char[24];
+        for (int i = 0; i < 100000; i++) {
+            for (int j = 0; j < chars.length; j++) {
+                int kind = random.nextInt(12);
+                chars[j] = kind == 0 ? ' ' : kind == 1 ? '\n' : kind == 2 ? (char) ('a' + random.nextInt(26))
+                        : kind == 3 ? "கசம்ாிு".charAt(random.nextInt(7))
+                        : (char) ('஀' + random.nextInt(128));
+            }
+            String text = new String(chars);
+            for (Transliterator transliterator : transliterators) {
+                assertConvertedLikeMappingTable(transliterator, text);
+            }
+        }
+    }
+
+    @Test
+    public void testConvertRangesLikeMappingTable() throws IOException
+    {
+        Random random = new Random(51);
+        char[] chars = new char[16];
+        for (int i = 0; i < 20000; i++) {
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = random.nextInt(6) == 0 ? ' ' : (char) ('஀' + random.nextInt(128));
+            }
+            String text = new String(chars);
+            int from = random.nextInt(chars.length);
+            int to = from + random.nextInt(chars.length - from + 1);
+            StringBuilder expected = new StringBuilder();
+            Transliterator.DEFAULT.convertGraphemes(text, from, to, expected, null);
+            StringBuilder convertedText = new StringBuilder();
+            Transliterator.DEFAULT.convert(text, from, to, convertedText);
+            assertEquals(text + " [" + from + ", " + to + "]", expected.toString(), convertedText.toString());
+        }
+    }
+
+    private static void assertConvertedLikeMappingTable(Transliterator transliterator, String text)
+            throws IOException
+    {
+        StringBuilder expected = new StringBuilder();
+        transliterator.convertGraphemes(text, 0, text.length(), expected, null);
+        assertEquals(text, expected.toString(), transliterator.convert(text));
+    }
+}
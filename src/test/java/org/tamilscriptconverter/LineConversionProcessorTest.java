@@ -0,0 +1,252 @@
+package org.tamilscriptconverter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @since 1.0
+ */
+public class LineConversionProcessorTest
+{
+    @Test
+    public void testConvertLines() throws InterruptedException
+    {
+        LineConversionProcessor processor = new LineConversionProcessor();
+        LinePublisher publisher = new LinePublisher(Arrays.asList("எஜமானனே", "", "1. உமக்காகத்தான் வாழ்கிறேன்"));
+        publisher.subscribe(processor);
+        LineSubscriber subscriber = new LineSubscriber(1);
+        processor.subscribe(subscriber);
+        subscriber.await();
+
+        assertNull(subscriber.error);
+        assertTrue(subscriber.completed);
+        assertEquals(3, subscriber.lines.size());
+        ConvertedLine line = subscriber.lines.get(0);
+        assertEquals(1, line.getLineNumber());
+        assertEquals("எஜமானனே", line.getTamilText());
+        assertEquals("Ejamaananae", line.getRomanisedText());
+        assertNull(line.getVerseNumber());
+        assertEquals("", subscriber.lines.get(1).getRomanisedText());
+        line = subscriber.lines.get(2);
+        assertEquals(3, line.getLineNumber());
+        assertEquals("1", line.getVerseNumber());
+        assertEquals("Umakkaakaththaan vaazhkitraen", line.getRomanisedText());
+    }
+
+    @Test
+    public void testRequestOnlyWhatIsNeeded() throws InterruptedException
+    {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add("இயேசு " + i);
+        }
+        LineConversionProcessor processor = new LineConversionProcessor(SongFormat.DEFAULT, null, 8);
+        LinePublisher publisher = new LinePublisher(lines);
+        publisher.subscribe(processor);
+        LineSubscriber subscriber = new LineSubscriber(0);
+        processor.subscribe(subscriber);
+        assertEquals(0, publisher.requested);
+
+        subscriber.subscription.request(3);
+        assertEquals(3, subscriber.lines.size());
+        assertEquals(3, publisher.requested);
+        subscriber.subscription.request(50);
+        assertEquals(53, subscriber.lines.size());
+        assertEquals(53, publisher.requested);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.await();
+        assertEquals(100, subscriber.lines.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void testConvertInOrderWithExecutor() throws IOException, InterruptedException
+    {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lines.addAll(Files.readAllLines(Paths.get("src/test/resources/ejamaananae-source.txt"),
+                    StandardCharsets.UTF_8));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            LineConversionProcessor processor = new LineConversionProcessor(SongFormat.DEFAULT, executor, 16);
+            new LinePublisher(lines).subscribe(processor);
+            LineSubscriber subscriber = new LineSubscriber(5);
+            processor.subscribe(subscriber);
+            subscriber.await();
+
+            assertNull(subscriber.error);
+            assertEquals(lines.size(), subscriber.lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                assertEquals(SongFormat.DEFAULT.convertLine(i + 1, lines.get(i)).toString(),
+                        subscriber.lines.get(i).toString());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSecondSubscriber() throws InterruptedException
+    {
+        LineConversionProcessor processor = new LineConversionProcessor();
+        processor.subscribe(new LineSubscriber(1));
+        LineSubscriber subscriber = new LineSubscriber(1);
+        processor.subscribe(subscriber);
+        subscriber.await();
+        assertTrue(subscriber.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testPublisherError() throws InterruptedException
+    {
+        LineConversionProcessor processor = new LineConversionProcessor();
+        LinePublisher publisher = new LinePublisher(Arrays.asList("இயேசு", "ராஜனே"));
+        publisher.subscribe(processor);
+        LineSubscriber subscriber = new LineSubscriber(0);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        processor.onError(new IOException("Can't read the song"));
+        subscriber.await();
+        assertTrue(subscriber.error instanceof IOException);
+        assertEquals(1, subscriber.lines.size());
+    }
+
+    @Test
+    public void testInvalidRequest() throws InterruptedException
+    {
+        LineConversionProcessor processor = new LineConversionProcessor();
+        LinePublisher publisher = new LinePublisher(Arrays.asList("இயேசு"));
+        publisher.subscribe(processor);
+        LineSubscriber subscriber = new LineSubscriber(0);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        subscriber.await();
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(publisher.cancelled);
+    }
+
+    /**
+     * Publishes the given lines in the thread requesting them.
+     */
+    private static class LinePublisher implements Flow.Publisher<String>
+    {
+        private final List<String> lines;
+        private long requested;
+        private boolean cancelled;
+
+        LinePublisher(List<String> lines)
+        {
+            this.lines = lines;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super String> subscriber)
+        {
+            subscriber.onSubscribe(new LineSubscription(subscriber));
+        }
+
+        private class LineSubscription implements Flow.Subscription
+        {
+            private final Flow.Subscriber<? super String> subscriber;
+            private int index;
+
+            LineSubscription(Flow.Subscriber<? super String> subscriber)
+            {
+                this.subscriber = subscriber;
+            }
+
+            @Override
+            public synchronized void request(long n)
+            {
+                requested += n;
+                for (long i = 0; i < n && index < lines.size() && !cancelled; i++) {
+                    subscriber.onNext(lines.get(index++));
+                }
+                if (index == lines.size() && !cancelled) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel()
+            {
+                cancelled = true;
+            }
+        }
+    }
+
+    /**
+     * Keeps the converted lines, requesting the given number of them at a time.
+     */
+    private static class LineSubscriber implements Flow.Subscriber<ConvertedLine>
+    {
+        private final int batchSize;
+        private final List<ConvertedLine> lines = new ArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+        private int received;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        LineSubscriber(int batchSize)
+        {
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            if (batchSize > 0) {
+                subscription.request(batchSize);
+            }
+        }
+
+        @Override
+        public void onNext(ConvertedLine item)
+        {
+            lines.add(item);
+            if (batchSize > 0 && ++received == batchSize) {
+                received = 0;
+                subscription.request(batchSize);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable)
+        {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete()
+        {
+            completed = true;
+            done.countDown();
+        }
+
+        void await() throws InterruptedException
+        {
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+    }
+}
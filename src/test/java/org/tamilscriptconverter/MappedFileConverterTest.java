@@ -0,0 +1,65 @@
+package org.tamilscriptconverter;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @since 1.0
+ */
+public class MappedFileConverterTest
+{
+    @Test
+    public void testConvertFile() throws IOException
+    {
+        File source = new File("src/test/resources/ejamaananae-source.txt");
+        assertSameAsConvertFile(source, new File("target/mapped/ejamaananae-source.txt"), 64 << 20);
+        assertSameAsConvertFile(source, new File("target/mapped/ejamaananae-source.txt"), 7);
+    }
+
+    @Test
+    public void testConvertFileWithSmallRegions() throws IOException
+    {
+        String song = new String(Files.readAllBytes(Paths.get("src/test/resources/ejamaananae-source.txt")),
+                StandardCharsets.UTF_8);
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i < 500; i++) {
+            text.append(i % 10).append(". ").append(song).append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\r" : "\n");
+            text.append("   \r\n\r\n");
+        }
+        text.append("இயேசு");
+        File source = new File("target/mapped/generated.txt");
+        source.getParentFile().mkdirs();
+        Files.write(source.toPath(), text.toString().getBytes(Charset.defaultCharset()));
+        assertSameAsConvertFile(source, new File("target/mapped/generated-converted.txt"), 64 << 20);
+        assertSameAsConvertFile(source, new File("target/mapped/generated-converted.txt"), 4099);
+    }
+
+    @Test
+    public void testConvertEmptyFile() throws IOException
+    {
+        File source = new File("target/mapped/empty.txt");
+        source.getParentFile().mkdirs();
+        Files.write(source.toPath(), new byte[0]);
+        assertSameAsConvertFile(source, new File("target/mapped/empty-converted.txt"), 64 << 20);
+    }
+
+    private static void assertSameAsConvertFile(File source, File target, int regionSize) throws IOException
+    {
+        File expected = new File("target/mapped/expected.txt");
+        long expectedLineCount = TamilScriptConverter.convertFile(source, expected);
+        long lineCount = MappedFileConverter.convertFile(source, target, Charset.defaultCharset(),
+                SongFormat.DEFAULT, regionSize);
+        assertEquals(expectedLineCount, lineCount);
+        assertTrue(Arrays.equals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(target.toPath())));
+    }
+}
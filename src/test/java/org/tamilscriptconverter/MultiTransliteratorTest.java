@@ -0,0 +1,79 @@
+package org.tamilscriptconverter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * @since 1.0
+ */
+public class MultiTransliteratorTest
+{
+    private static final Transliterator SEARCH = new Transliterator(MappingTable.fromResource("search.mapping"));
+    private static final Transliterator ISO_15919 = new Transliterator(MappingTable.ISO_15919);
+    private final MultiTransliterator transliterator = new MultiTransliterator(
+            Arrays.asList(Transliterator.DEFAULT, SEARCH, ISO_15919));
+
+    @Test
+    public void testConvert()
+    {
+        assertEquals(Arrays.asList("yaesu raajanae", "yesu rajane", "iyēcu rājaṉē"),
+                Arrays.asList(transliterator.convert("இயேசு ராஜனே")));
+        assertEquals(Arrays.asList("thamizh", "tamil", "tamiḻ"), Arrays.asList(transliterator.convert("தமிழ்")));
+        assertEquals(Arrays.asList("", "", ""), Arrays.asList(transliterator.convert("")));
+    }
+
+    @Test
+    public void testConvertLikeEachTransliterator()
+    {
+        Random random = new Random(17);
+        char[] chars = "அஆஇஈஉஊஎஏஐஒஓஔஃகஙசஞடணதநனபமயரறலளழவஜஷஸஹாிீுூெேைொோௌ் \t1a.é😀"
+                .toCharArray();
+        String[] texts = new String[500];
+        for (int i = 0; i < texts.length; i++) {
+            char[] text = new char[random.nextInt(40)];
+            for (int j = 0; j < text.length; j++) {
+                text[j] = chars[random.nextInt(chars.length)];
+            }
+            //the start of some texts is trimmed by the house style but not by the other mapping tables
+            texts[i] = i % 5 == 0 ? "இயே" + new String(text) : new String(text);
+        }
+        for (String text : texts) {
+            String[] romanisations = transliterator.convert(text);
+            assertEquals(text, Transliterator.DEFAULT.convert(text), romanisations[0]);
+            assertEquals(text, SEARCH.convert(text), romanisations[1]);
+            assertEquals(text, ISO_15919.convert(text), romanisations[2]);
+        }
+    }
+
+    @Test
+    public void testSearchNormalisesLikeSongIndex() throws IOException
+    {
+        for (String line : Files.readAllLines(Paths.get("src/test/resources/ejamaananae-source.txt"),
+                StandardCharsets.UTF_8)) {
+            String[] romanisations = transliterator.convert(line);
+            assertEquals(line, SongIndex.normalise(romanisations[0]), SongIndex.normalise(romanisations[1]));
+        }
+    }
+
+    @Test
+    public void testConvertWithOneTransliterator()
+    {
+        MultiTransliterator single = new MultiTransliterator(Collections.singletonList(ISO_15919));
+        assertEquals(Collections.singletonList("aṉpu"), Arrays.asList(single.convert("அன்பு")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConvertToWrongNumberOfOutputs()
+    {
+        transliterator.convert("அன்பு", new StringBuilder[]{new StringBuilder()});
+    }
+}
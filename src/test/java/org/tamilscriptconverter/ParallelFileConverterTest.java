@@ -0,0 +1,111 @@
+package org.tamilscriptconverter;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * @since 1.0
+ */
+public class ParallelFileConverterTest
+{
+    private final File directory = new File("target/parallel");
+
+    @Test
+    public void testConvert() throws IOException
+    {
+        String song = new String(Files.readAllBytes(Paths.get("src/test/resources/ejamaananae-source.txt")),
+                StandardCharsets.UTF_8);
+        String[] texts = {"", "\n", "இயேசு", "இயேசு\r\nராஜனே\rஅன்பு\n\n", song, generateText(5000)};
+        for (String text : texts) {
+            for (int chunkSize : new int[]{1, 7, 100, ParallelFileConverter.CHUNK_SIZE}) {
+                ParallelFileConverter converter = new ParallelFileConverter(3);
+                converter.setChunkSize(chunkSize);
+                assertEquals(convertSequentially(text), converter.convert(text));
+            }
+        }
+    }
+
+    @Test
+    public void testConvertFile() throws IOException
+    {
+        directory.mkdirs();
+        String text = generateText(20000) + "\r\nஒரு நீண்ட வரி without line feed";
+        File source = new File(directory, "large.txt");
+        Files.write(source.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        File expected = new File(directory, "expected.txt");
+        long expectedLineCount = MappedFileConverter.convertFile(source, expected, StandardCharsets.UTF_8);
+        for (int chunkSize : new int[]{10, 4096, ParallelFileConverter.CHUNK_SIZE}) {
+            File target = new File(directory, "converted-" + chunkSize + ".txt");
+            ParallelFileConverter converter = new ParallelFileConverter(4);
+            converter.setChunkSize(chunkSize);
+            assertEquals(expectedLineCount, converter.convertFile(source, target, StandardCharsets.UTF_8));
+            assertEquals(new String(Files.readAllBytes(expected.toPath()), StandardCharsets.UTF_8),
+                    new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testConvertFileWithCarriageReturns() throws IOException
+    {
+        directory.mkdirs();
+        //the lines only end with carriage returns, like the files saved by the old Mac editors
+        String text = generateText(5000).replace("\r\n", "\n").replace('\n', '\r');
+        File source = new File(directory, "carriage-returns.txt");
+        Files.write(source.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        File expected = new File(directory, "carriage-returns-expected.txt");
+        long expectedLineCount = MappedFileConverter.convertFile(source, expected, StandardCharsets.UTF_8);
+        for (int chunkSize : new int[]{1, 10, 4096}) {
+            File target = new File(directory, "carriage-returns-" + chunkSize + ".txt");
+            ParallelFileConverter converter = new ParallelFileConverter(4);
+            converter.setChunkSize(chunkSize);
+            assertEquals(expectedLineCount, converter.convertFile(source, target, StandardCharsets.UTF_8));
+            assertEquals(new String(Files.readAllBytes(expected.toPath()), StandardCharsets.UTF_8),
+                    new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+            assertEquals(convertSequentially(text), converter.convert(text));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConvertUtf16File() throws IOException
+    {
+        new ParallelFileConverter(2).convertFile(new File("src/test/resources/ejamaananae-source.txt"),
+                new File(directory, "utf-16.txt"), StandardCharsets.UTF_16);
+    }
+
+    private static String generateText(int lineCount)
+    {
+        String[] words = {"இயேசு", "ராஜனே", "1.", "பல்லவி", "அன்பு", "சேர்", "மூச்சு", "x", "", "  "};
+        Random random = new Random(17);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lineCount; i++) {
+            int wordCount = random.nextInt(6);
+            for (int j = 0; j < wordCount; j++) {
+                text.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            text.append(random.nextInt(10) == 0 ? "\r\n" : "\n");
+        }
+        return text.toString();
+    }
+
+    private static String convertSequentially(String text) throws IOException
+    {
+        StringWriter writer = new StringWriter();
+        BufferedReader reader = new BufferedReader(new StringReader(text));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            SongFormat.DEFAULT.writeLine(line, writer);
+        }
+        return writer.toString();
+    }
+}
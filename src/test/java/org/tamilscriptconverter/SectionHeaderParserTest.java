@@ -0,0 +1,114 @@
+package org.tamilscriptconverter;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+
+/**
+ * @since 1.0
+ */
+public class SectionHeaderParserTest
+{
+    private final SectionHeaderParser parser = SectionHeaderParser.valueOf("Chorus,Bridge,பல்லவி=Chorus");
+
+    @Test
+    public void testParseVerse()
+    {
+        SectionHeader header = parser.parse("10. சேற்றிலிருந்து");
+        assertEquals(SectionHeader.VERSE, header.getType());
+        assertEquals("10", header.getNumber());
+        assertEquals(3, header.getLength());
+        assertEquals("---[Verse:10]---", header.getTag());
+        assertNull(parser.parse("சேற்றிலிருந்து"));
+    }
+
+    @Test
+    public void testParseMarker()
+    {
+        assertEquals("---[Chorus:1]---", parser.parse("Chorus").getTag());
+        assertEquals("---[Chorus:2]---", parser.parse("chorus 2: foo").getTag());
+        assertEquals(9, parser.parse("chorus 2: foo").getLength());
+        assertEquals("---[Bridge:1]---", parser.parse("BRIDGE. foo").getTag());
+        assertEquals("---[Chorus:1]---", parser.parse("பல்லவி foo").getTag());
+        assertNull(parser.parse("Choruses"));
+        assertNull(SectionHeaderParser.DEFAULT.parse("Chorus"));
+    }
+
+    @Test
+    public void testFormatTamilText()
+    {
+        assertEquals("---[Chorus:1]---\r\n{y}பல்லவி: இயேசு{/y}", parser.formatTamilText("பல்லவி: இயேசு"));
+        assertEquals("{y}இயேசு{/y}", parser.formatTamilText("இயேசு"));
+        assertEquals("  ", parser.formatTamilText("  "));
+    }
+
+    @Test
+    public void testFormatConvertedText()
+    {
+        assertEquals("Yaesu", parser.formatConvertedText("Chorus 2: yaesu"));
+        assertEquals("Yaesu", parser.formatConvertedText("2. yaesu"));
+    }
+
+    @Test
+    public void testFormatConvertedLine() throws IOException
+    {
+        assertEquals("Iyaesu", parser.formatConvertedText("பல்லவி: இயேசு", Transliterator.DEFAULT));
+        assertEquals("Iyaesu", parser.formatConvertedText("Chorus 2: இயேசு", Transliterator.DEFAULT));
+        assertEquals("Iyaesu", parser.formatConvertedText("2.இயேசு", Transliterator.DEFAULT));
+        assertEquals("Yaesu", parser.formatConvertedText("இயேசு", Transliterator.DEFAULT));
+
+        StringWriter writer = new StringWriter();
+        new SongFormat(Transliterator.DEFAULT, parser).writeLine("பல்லவி: இயேசு", writer);
+        assertEquals("---[Chorus:1]---\r\n{y}பல்லவி: இயேசு{/y}\r\nIyaesu\r\n", writer.toString());
+    }
+
+    @Test
+    public void testFormatConvertedVerse()
+    {
+        //the verse number and the char after it are removed from the romanisation, not from the line
+        assertEquals("Am vasanam", parser.formatConvertedText("3ஆம் வசனம்", Transliterator.DEFAULT));
+        assertEquals("Am vasanam", parser.formatConvertedText(Transliterator.DEFAULT.convert("3ஆம் வசனம்")));
+    }
+
+    @Test
+    public void testVerseNumberFollowedBySurrogatePair()
+    {
+        SectionHeader header = parser.parse("1😀 இயேசு");
+        assertEquals(3, header.getLength());
+        assertEquals("---[Verse:1😀]---", header.getTag());
+        assertEquals("Iyaesu", parser.formatConvertedText("1😀 இயேசு", Transliterator.DEFAULT));
+        assertEquals(4, parser.parse("12😀").getLength());
+    }
+
+    @Test
+    public void testSameAsRegularExpressions()
+    {
+        //the surrogates of the emoji are also picked on their own
+        String chars = "0123456789. \n\r x😀";
+        Random random = new Random(5);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                text.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            String input = text.toString();
+            boolean startsWithNumber = input.matches("^[0-9]{1,2}.+");
+            assertEquals(input, startsWithNumber, TamilScriptConverter.isTextStartsWithNumber(input));
+            Matcher matcher = Pattern.compile("^[0-9]{1,2}.").matcher(input);
+            String verseNumber = matcher.find() ? StringUtils.removeEnd(matcher.group(0), ".").trim() : "";
+            assertEquals(input, verseNumber, TamilScriptConverter.getVerseNumber(input));
+            String textToConvert = startsWithNumber ? StringUtils.removePattern(input, "^[0-9]{1,2}.") : input;
+            assertEquals(input, StringUtils.capitalize(textToConvert.trim()),
+                    TamilScriptConverter.formatConvertedText(input));
+        }
+    }
+}
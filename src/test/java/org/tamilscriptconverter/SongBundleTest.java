@@ -0,0 +1,94 @@
+package org.tamilscriptconverter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @since 1.0
+ */
+public class SongBundleTest
+{
+    private static final String REFRAIN = "பல்லவி: அல்லேலூயா அல்லேலூயா";
+    private final File directory = new File("target/song-bundle-test");
+    private final File bundleFile = new File("target/songs.bundle");
+    private final File source = new File(directory, "ejamaananae.txt");
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory.mkdirs();
+        Files.copy(Paths.get("src/test/resources/ejamaananae-source.txt"), source.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        SongFormat songFormat = new SongFormat(Transliterator.DEFAULT, SectionHeaderParser.valueOf("பல்லவி=Chorus"));
+        new SongBundleWriter(songFormat)
+                .addSongs(directory)
+                .addSong("refrain.txt", new StringReader(REFRAIN + "\n1. இயேசு ராஜனே\n\n" + REFRAIN + "\n"))
+                .write(bundleFile);
+    }
+
+    @Test
+    public void testReadSongAsConvertedFile() throws IOException
+    {
+        SongBundle bundle = SongBundle.open(bundleFile);
+        assertEquals(2, bundle.getSongCount());
+        SongBundle.Song song = bundle.getSong(bundle.indexOf("ejamaananae.txt"));
+        assertEquals("ejamaananae.txt", song.getName());
+        StringWriter writer = new StringWriter();
+        song.write(writer);
+        File expected = new File(directory, "converted/ejamaananae.txt");
+        TamilScriptConverter.convertFile(source, expected);
+        assertEquals(new String(Files.readAllBytes(expected.toPath()), StandardCharsets.UTF_8), writer.toString());
+    }
+
+    @Test
+    public void testReadLines() throws IOException
+    {
+        SongBundle bundle = SongBundle.open(bundleFile);
+        SongBundle.Song song = bundle.getSong(bundle.indexOf("refrain.txt"));
+        assertEquals(4, song.getLines().size());
+        SongBundle.Line refrain = song.getLines().get(0);
+        assertEquals(REFRAIN, refrain.getText());
+        assertEquals("Allaelooyaa allaelooyaa", refrain.getConvertedText());
+        assertEquals("Chorus", refrain.getSectionHeader().getType());
+        assertEquals("---[Verse:1]---", song.getLines().get(1).getSectionHeader().getTag());
+        assertEquals("Iyaesu raajanae", song.getLines().get(1).getConvertedText());
+        assertNull(song.getLines().get(2).getConvertedText());
+        assertNull(song.getLines().get(2).getSectionHeader());
+        assertEquals(-1, bundle.indexOf("missing.txt"));
+    }
+
+    @Test
+    public void testRepeatedLinesStoredOnce() throws IOException
+    {
+        SongBundleWriter writer = new SongBundleWriter();
+        writer.addSong("once", new StringReader(REFRAIN));
+        ByteArrayOutputStream once = new ByteArrayOutputStream();
+        writer.write(once);
+        writer.addSong("twice", new StringReader(REFRAIN + "\n" + REFRAIN));
+        ByteArrayOutputStream twice = new ByteArrayOutputStream();
+        writer.write(twice);
+        assertTrue(twice.size() - once.size() < REFRAIN.getBytes(StandardCharsets.UTF_8).length);
+        SongBundle bundle = SongBundle.wrap(twice.toByteArray());
+        assertEquals(REFRAIN, bundle.getSong(1).getLines().get(1).getText());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenInvalidBundle() throws IOException
+    {
+        SongBundle.open(source);
+    }
+}
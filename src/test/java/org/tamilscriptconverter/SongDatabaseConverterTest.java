@@ -0,0 +1,88 @@
+package org.tamilscriptconverter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @since 1.0
+ */
+public class SongDatabaseConverterTest
+{
+    private static final String LYRICS = "<?xml version='1.0' encoding='UTF-8'?>\n<song version=\"1.0\"><lyrics>" +
+            "<verse label=\"1\" type=\"v\"><![CDATA[1. இயேசு ராஜனே\nஅம்மா]]></verse>" +
+            "<verse label=\"1\" type=\"c\"><![CDATA[சேர்]]></verse></lyrics></song>";
+    private final File database = new File("target/songs.sqlite");
+
+    @Before
+    public void setUp() throws SQLException
+    {
+        database.delete();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE songs (id INTEGER PRIMARY KEY, title VARCHAR(255), " +
+                    "search_title VARCHAR(255), lyrics TEXT, search_lyrics TEXT)");
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO songs (id, title, lyrics) VALUES (?, ?, ?)")) {
+                for (int id = 1; id <= SongDatabaseConverter.PAGE_SIZE * 2 + 1; id++) {
+                    insert.setInt(1, id);
+                    insert.setString(2, "இயேசு ராஜனே " + id);
+                    insert.setString(3, LYRICS);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    @Test
+    public void testConvert() throws IOException, SQLException
+    {
+        SongDatabaseConverter converter = new SongDatabaseConverter();
+        assertEquals(SongDatabaseConverter.PAGE_SIZE * 2 + 1, converter.convert(database));
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet songs = statement.executeQuery("SELECT lyrics, search_title, search_lyrics FROM songs " +
+                     "WHERE id = 1001")) {
+            assertTrue(songs.next());
+            assertEquals("<?xml version='1.0' encoding='UTF-8'?>\n<song version=\"1.0\"><lyrics>" +
+                    "<verse label=\"1\" type=\"v\"><![CDATA[---[Verse:1]---\n{y}1. இயேசு ராஜனே{/y}\nIyaesu raajanae\n" +
+                    "{y}அம்மா{/y}\nAmmaa]]></verse>" +
+                    "<verse label=\"1\" type=\"c\"><![CDATA[{y}சேர்{/y}\nSaer]]></verse></lyrics></song>",
+                    songs.getString(1));
+            assertEquals("இயேசு ராஜனே 1001@yaesu raajanae 1001", songs.getString(2));
+            assertTrue(songs.getString(3), songs.getString(3).endsWith("iyaesu raajanae ammaa saer"));
+        }
+        //the songs already converted are skipped
+        assertEquals(0, converter.convert(database));
+    }
+
+    @Test(expected = IOException.class)
+    public void testConvertMissingDatabase() throws IOException
+    {
+        new SongDatabaseConverter().convert(new File("target/missing.sqlite"));
+    }
+
+    @Test
+    public void testGetSearchText()
+    {
+        assertEquals("yaesu raajanae", SongDatabaseConverter.getSearchText("  Yaesu, Raajanae!"));
+        assertEquals("இயேசு", SongDatabaseConverter.getSearchText("இயேசு"));
+    }
+
+    private Connection connect() throws SQLException
+    {
+        return DriverManager.getConnection("jdbc:sqlite:" + database.getPath());
+    }
+}
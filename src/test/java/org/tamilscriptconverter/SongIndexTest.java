@@ -0,0 +1,95 @@
+package org.tamilscriptconverter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @since 1.0
+ */
+public class SongIndexTest
+{
+    private final File directory = new File("target/song-index-test");
+    private SongIndex index;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        new File(directory, "nested").mkdirs();
+        Files.copy(Paths.get("src/test/resources/ejamaananae-source.txt"),
+                new File(directory, "nested/ejamaananae.txt").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        index = new SongIndex.Builder()
+                .addSongs(directory)
+                .addSong("other.txt", new StringReader("அன்பே அன்பே\n\nவாழ்க வாழ்க\n"))
+                .build();
+    }
+
+    @Test
+    public void testNormalise()
+    {
+        assertEquals("yesu rajane", SongIndex.normalise("Yaesu raajanae!"));
+        assertEquals(SongIndex.normalise("vaazhkiraen"), SongIndex.normalise("valkiren"));
+        assertEquals(SongIndex.normalise("thiRantheeraiyaa"), SongIndex.normalise("tirandiraiya"));
+        assertEquals("", SongIndex.normalise(" .,- "));
+    }
+
+    @Test
+    public void testSearch()
+    {
+        List<SongIndex.Hit> hits = index.search("yaesu raajanae", 3);
+        assertEquals(3, hits.size());
+        assertEquals("nested/ejamaananae.txt", hits.get(0).getSong());
+        assertEquals(5, hits.get(0).getLineNumber());
+        assertEquals("என் இயேசு ராஜனே", hits.get(0).getLine());
+        assertTrue(hits.get(0).getScore() >= hits.get(1).getScore());
+        assertTrue(hits.get(1).getScore() >= hits.get(2).getScore());
+    }
+
+    @Test
+    public void testSearchVariantSpellings()
+    {
+        assertEquals(5, index.search("yesu rajane", 1).get(0).getLineNumber());
+        assertEquals(3, index.search("valga", 1).get(0).getLineNumber());
+        assertEquals("other.txt", index.search("anbae", 1).get(0).getSong());
+        assertEquals(7, index.search("umakkaga vazh", 1).get(0).getLineNumber());
+    }
+
+    @Test
+    public void testSearchNothing()
+    {
+        assertEquals(0, index.search("", 10).size());
+        assertEquals(0, index.search("yaesu", 0).size());
+        assertEquals(0, index.search("xqxq", 10).size());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        SongIndex readIndex = SongIndex.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(index.getSongCount(), readIndex.getSongCount());
+        assertEquals(index.getLineCount(), readIndex.getLineCount());
+        for (String query : new String[]{"yaesu raajanae", "anbe", "paraloagam", "1"}) {
+            assertEquals(index.search(query, 5).toString(), readIndex.search(query, 5).toString());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadInvalidIndex() throws IOException
+    {
+        SongIndex.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+}
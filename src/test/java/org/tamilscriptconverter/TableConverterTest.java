@@ -0,0 +1,142 @@
+package org.tamilscriptconverter;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+
+/**
+ * @since 1.0
+ */
+public class TableConverterTest
+{
+    @Test
+    public void testConvertCsv() throws IOException
+    {
+        String csv = "id,title,lyrics\r\n" +
+                "1,இயேசு ராஜனே,\"அம்மா, \"\"வா\"\"\nசேர்\"\r\n" +
+                "2,,x\r\n";
+        assertEquals("id,title,lyrics,title_romanised,lyrics_romanised\r\n" +
+                        "1,இயேசு ராஜனே,\"அம்மா, \"\"வா\"\"\nசேர்\",yaesu raajanae,\"ammaa, \"\"vaa\"\"\nsaer\"\r\n" +
+                        "2,,x,,x\r\n",
+                convert(TableFormat.CSV, Arrays.asList("title", "lyrics"), csv, 2));
+    }
+
+    @Test
+    public void testConvertTsv() throws IOException
+    {
+        String tsv = "title\tlyrics\nஇயேசு\tசேர்\n";
+        assertEquals("title\tlyrics\tlyrics_romanised\r\nஇயேசு\tசேர்\tsaer\r\n",
+                convert(TableFormat.TSV, Collections.singletonList("lyrics"), tsv, 1));
+    }
+
+    @Test
+    public void testConvertJsonLines() throws IOException
+    {
+        String jsonLines = "{\"id\": 1, \"tags\": [\"a\", {\"title\": \"x\"}], \"title\": \"இயேசு\\n\\\"ராஜனே\\\"\"}\n" +
+                "\n" +
+                "{}\n" +
+                "{\"title\": null, \"lyrics\": \"அம்மா\"}\n";
+        assertEquals("{\"id\": 1, \"tags\": [\"a\", {\"title\": \"x\"}], \"title\": \"இயேசு\\n\\\"ராஜனே\\\"\"," +
+                        "\"title_romanised\":\"yaesu\\n\\\"raajanae\\\"\"}\n" +
+                        "\n" +
+                        "{}\n" +
+                        "{\"title\": null, \"lyrics\": \"அம்மா\",\"lyrics_romanised\":\"ammaa\"}\n",
+                convert(TableFormat.JSONL, Arrays.asList("title", "lyrics"), jsonLines, 2));
+    }
+
+    @Test
+    public void testConvertJsonLinesSkipsInvalidLines() throws IOException
+    {
+        TableConverter converter = new TableConverter(TableFormat.JSONL, Collections.singletonList("title"), 2);
+        StringWriter writer = new StringWriter();
+        assertEquals(2, converter.convert(new StringReader("{\"title\": \"அம்மா\"}\n{\"title\": \"x\n" +
+                "[1, 2]\n{\"title\": \"சேர்\"}\n"), writer));
+        assertEquals(2, converter.getSkippedRowCount());
+        assertEquals("{\"title\": \"அம்மா\",\"title_romanised\":\"ammaa\"}\n" +
+                "{\"title\": \"சேர்\",\"title_romanised\":\"saer\"}\n", writer.toString());
+    }
+
+    @Test
+    public void testConvertJsonLinesReplacesRomanisedFields() throws IOException
+    {
+        assertEquals("{\"title_romanised\": \"ammaa\", \"title\": \"அம்மா\", \"n\": 2}\n" +
+                        "{\"title_romanised\":\"saer\",\"title\":\"சேர்\"}\n",
+                convert(TableFormat.JSONL, Collections.singletonList("title"),
+                        "{\"title_romanised\": \"old\", \"title\": \"அம்மா\", \"n\": 2}\n" +
+                                "{\"title_romanised\":null,\"title\":\"சேர்\"}\n", 1));
+    }
+
+    @Test
+    public void testConvertKeepsOrder() throws IOException
+    {
+        StringBuilder csv = new StringBuilder("n,text\r\n");
+        StringBuilder expected = new StringBuilder("n,text,text_romanised\r\n");
+        String[] words = {"அம்மா", "இயேசு ராஜனே", "சேர்", "மூச்சு"};
+        for (int i = 0; i < TableConverter.BATCH_SIZE * 10 + 7; i++) {
+            String word = words[i % words.length];
+            csv.append(i).append(',').append(word).append("\r\n");
+            expected.append(i).append(',').append(word).append(',').append(TamilScriptConverter.convert(word))
+                    .append("\r\n");
+        }
+        assertEquals(expected.toString(), convert(TableFormat.CSV, Collections.singletonList("text"),
+                csv.toString(), 4));
+    }
+
+    @Test
+    public void testConvertToSeveralRomanisations() throws IOException
+    {
+        TableConverter converter = new TableConverter(TableFormat.CSV, Arrays.asList("title", "lyrics"), 2);
+        converter.setTransliterators(Arrays.asList(Transliterator.DEFAULT,
+                new Transliterator(MappingTable.fromResource("search.mapping")),
+                new Transliterator(MappingTable.ISO_15919)));
+        StringWriter writer = new StringWriter();
+        converter.convert(new StringReader("title,lyrics\r\nஇயேசு ராஜனே,தமிழ்\r\nஅன்பு\r\n"), writer);
+        assertEquals("title,lyrics,title_romanised,title_romanised_search,title_romanised_iso_15919," +
+                        "lyrics_romanised,lyrics_romanised_search,lyrics_romanised_iso_15919\r\n" +
+                        "இயேசு ராஜனே,தமிழ்,yaesu raajanae,yesu rajane,iyēcu rājaṉē,thamizh,tamil,tamiḻ\r\n" +
+                        "அன்பு,anpu,anpu,aṉpu,,,\r\n",
+                writer.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConvertMissingColumn() throws IOException
+    {
+        convert(TableFormat.CSV, Collections.singletonList("lyrics"), "title\r\nx\r\n", 1);
+    }
+
+    @Test
+    public void testReadDelimitedRecords() throws IOException
+    {
+        DelimitedRecords records = new DelimitedRecords(new BufferedReader(new StringReader("a,\"b\r\nc\",\r\n\r\nd")),
+                ',', true);
+        assertEquals(Arrays.asList("a", "b\r\nc", ""), records.next());
+        assertEquals(Collections.singletonList(""), records.next());
+        assertEquals(Collections.singletonList("d"), records.next());
+        assertNull(records.next());
+    }
+
+    @Test
+    public void testFromFileName()
+    {
+        assertEquals(TableFormat.TSV, TableFormat.fromFileName("songs.TSV"));
+        assertEquals(TableFormat.JSONL, TableFormat.fromFileName("songs.jsonl"));
+        assertEquals(TableFormat.CSV, TableFormat.fromFileName("songs.csv"));
+    }
+
+    private static String convert(TableFormat format, List<String> columns, String table, int threadCount)
+            throws IOException
+    {
+        StringWriter writer = new StringWriter();
+        new TableConverter(format, columns, threadCount).convert(new StringReader(table), writer);
+        return writer.toString();
+    }
+}
@@ -3,12 +3,18 @@ package org.tamilscriptconverter;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
@@ -33,6 +39,15 @@ public class TamilScriptConverterTest
         assertTrue(TamilScriptConverter.isVowelSign(TamilScriptConverter.VOWEL_SIGN_AI));
     }
 
+    @Test
+    public void testIsBlank()
+    {
+        String[] texts = {null, "", " ", "\t\r\n", "　", " ", " ", " a ", "அ", "\u0000"};
+        for (String text : texts) {
+            assertEquals(String.valueOf(text), StringUtils.isBlank(text), TamilScriptConverter.isBlank(text));
+        }
+    }
+
     @Test
     public void testEndsWithVowelSignAfterChar()
     {
@@ -177,6 +192,121 @@ public class TamilScriptConverterTest
         assertEquals("saetrrilirunthu thookkinaar", TamilScriptConverter.convert("சேற்றிலிருந்து தூக்கினார்"));
     }
 
+    @Test
+    public void testConvertAppendsToBuilder()
+    {
+        StringBuilder builder = new StringBuilder("song: ");
+        assertEquals("song: yaesu raajanae", TamilScriptConverter.convert("இயேசு ராஜனே", builder).toString());
+    }
+
+    @Test
+    public void testConvertMatchesGraphemePipeline() throws IOException
+    {
+        for (String line : Files.readAllLines(Paths.get("src/test/resources/ejamaananae-source.txt"),
+                StandardCharsets.UTF_8)) {
+            assertEquals(convertGraphemes(line), TamilScriptConverter.convert(line));
+        }
+        String[] edgeCases = {"", "இ", "இர", "இரா", "இயே", "இயேசு", "இயே்", "ா", "்ம", "மா்", "பௌ", "xா", "x்",
+                "சே", " சே", "சசு", "ச்சு", "1. சு", "a\u0bcdb", "\u0bbe\u0bbf\u0bcd",
+                "ாஇயேசு", "்இரர", "ாிஇயேசு", "ாஇய", "ா இயேசு", "ாஇர"};
+        for (String edgeCase : edgeCases) {
+            assertEquals(edgeCase, convertGraphemes(edgeCase), TamilScriptConverter.convert(edgeCase));
+        }
+        Random random = new Random(42);
+        char[] chars = new char[12];
+        for (int i = 0; i < 10000; i++) {
+            for (int j = 0; j < chars.length; j++) {
+                int kind = random.nextInt(10);
+                chars[j] = kind == 0 ? ' ' : kind == 1 ? (char) ('a' + random.nextInt(26)) : (char) ('\u0b80' + random.nextInt(128));
+            }
+            String text = new String(chars);
+            assertEquals(text, convertGraphemes(text), TamilScriptConverter.convert(text));
+        }
+    }
+
+    @Test
+    public void testConvertReader() throws IOException
+    {
+        String text = new String(Files.readAllBytes(Paths.get("src/test/resources/ejamaananae-source.txt")),
+                StandardCharsets.UTF_8);
+        String[] texts = {text, "இயேசு ராஜனே", "இரத்தம் ஜெயம்", "இயே", "ச", "", "மூச்சு சேர்",
+                "ாஇயேசு", "்இரர"};
+        for (String input : texts) {
+            for (int chunkSize = 1; chunkSize < 6; chunkSize++) {
+                StringWriter writer = new StringWriter();
+                TamilScriptConverter.convert(new ChunkedReader(input, chunkSize), writer);
+                assertEquals(TamilScriptConverter.convert(input), writer.toString());
+            }
+        }
+        Random random = new Random(7);
+        char[] chars = new char[20];
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = random.nextInt(8) == 0 ? ' ' : (char) ('\u0b80' + random.nextInt(128));
+            }
+            String input = new String(chars);
+            StringWriter writer = new StringWriter();
+            TamilScriptConverter.convert(new ChunkedReader(input, 1 + random.nextInt(5)), writer);
+            assertEquals(input, TamilScriptConverter.convert(input), writer.toString());
+        }
+    }
+
+    @Test
+    public void testConvertInputStream() throws IOException
+    {
+        byte[] source = Files.readAllBytes(Paths.get("src/test/resources/ejamaananae-source.txt"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TamilScriptConverter.convert(new ByteArrayInputStream(source), output);
+        assertEquals(TamilScriptConverter.convert(new String(source, StandardCharsets.UTF_8)),
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testConvertInputStreamWithCharsets() throws IOException
+    {
+        byte[] source = "அம்மா இங்கே வா வா".getBytes(StandardCharsets.UTF_16);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TamilScriptConverter.convert(new ByteArrayInputStream(source), StandardCharsets.UTF_16, output,
+                StandardCharsets.US_ASCII);
+        assertEquals("ammaa ingkae vaa vaa", new String(output.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns at most the given number of chars per read, to split the graphemes between the chunks
+     */
+    private static class ChunkedReader extends StringReader
+    {
+        private final int chunkSize;
+
+        ChunkedReader(String text, int chunkSize)
+        {
+            super(text);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException
+        {
+            return super.read(buffer, offset, Math.min(length, chunkSize));
+        }
+    }
+
+    private static String convertGraphemes(String text)
+    {
+        StringBuilder convertedWord = new StringBuilder();
+        List<String> unicodeChars = TamilScriptConverter.splitUnicodeChars(text);
+        for (int i = 0; i < unicodeChars.size(); i++) {
+            String unicodeChar = unicodeChars.get(i);
+            String previousChar = i > 0 ? unicodeChars.get(i - 1) : "  ";
+            if (TamilScriptConverter.endsWithVowelSign(unicodeChar)) {
+                convertedWord.append(TamilScriptConverter.convertCharWithVowelSign(unicodeChar, previousChar));
+            } else {
+                convertedWord.append(TamilScriptConverter.convertChar(unicodeChar));
+            }
+        }
+        return convertedWord.toString();
+    }
+
     @Test
     public void testIsTextStartsWithNumber()
     {
@@ -0,0 +1,142 @@
+package org.tamilscriptconverter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * @since 1.0
+ */
+public class TransliteratorTest
+{
+    private final Transliterator iso15919 = new Transliterator(MappingTable.ISO_15919);
+
+    @Test
+    public void testDefaultUsesHouseStyle()
+    {
+        assertEquals("yaesu raajanae", Transliterator.DEFAULT.convert("இயேசு ராஜனே"));
+        assertEquals(TamilScriptConverter.convert("மூச்சு சேர் சசு"), Transliterator.DEFAULT.convert("மூச்சு சேர் சசு"));
+    }
+
+    @Test
+    public void testConvertIso15919()
+    {
+        assertEquals("iyēcu rājaṉē", iso15919.convert("இயேசு ராஜனே"));
+        assertEquals("aṉpu", iso15919.convert("அன்பு"));
+        assertEquals("kauṟi", iso15919.convert("கௌறி"));
+        assertEquals("tamiḻ", iso15919.convert("தமிழ்"));
+    }
+
+    @Test
+    public void testLoadCustomMappingTable() throws IOException
+    {
+        MappingTable mappingTable = MappingTable.load("custom", new StringReader(
+                "# comment\nம ma\nம் m\nா aa\nமா MAA ^\n"));
+        Transliterator transliterator = new Transliterator(mappingTable);
+        assertEquals("MAA mamaa MAAm", transliterator.convert("மா மமா மாம்"));
+        assertEquals("custom", mappingTable.getName());
+        assertEquals(64, mappingTable.getVersion().length());
+        assertNull(mappingTable.getLetter('க'));
+        assertEquals("க", transliterator.convert("க"));
+    }
+
+    @Test
+    public void testVersionChangesWithContent() throws IOException
+    {
+        String version = MappingTable.load("a", new StringReader("ம ma\n")).getVersion();
+        assertEquals(version, MappingTable.load("b", new StringReader("ம ma\n")).getVersion());
+        assertFalse(version.equals(MappingTable.load("a", new StringReader("ம mA\n")).getVersion()));
+    }
+
+    @Test
+    public void testLoadInvalidMappingTable() throws IOException
+    {
+        String[] invalidTables = {"ம", "ம ma x y", "a a", "மா maa x", "ம ma ^", "%trim இ", "மகா maka",
+                "சு su !x"};
+        for (String invalidTable : invalidTables) {
+            try {
+                MappingTable.load("invalid", new StringReader(invalidTable));
+                fail(invalidTable);
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("invalid, line 1: "));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromMissingResource()
+    {
+        MappingTable.fromResource("missing.mapping");
+    }
+
+    @Test
+    public void testTrace()
+    {
+        ConversionTrace trace = Transliterator.DEFAULT.trace("இயேசு பௌ");
+        assertEquals("yaesu பௌ", trace.getConvertedText());
+        assertEquals("இ", trace.getTrimmedText());
+        List<ConversionTrace.Step> steps = trace.getSteps();
+        assertEquals(4, steps.size());
+        assertEquals("யே", steps.get(0).getGrapheme());
+        assertEquals("yae", steps.get(0).getRomanisation());
+        assertTrue(steps.get(0).isPreviousBlank());
+        assertEquals("சு", steps.get(1).getGrapheme());
+        assertEquals("su", steps.get(1).getRomanisation());
+        assertEquals('ய', steps.get(1).getPreviousChar());
+        assertFalse(steps.get(3).isMapped());
+        assertTrue(trace.toString().contains("\"பௌ\" -> unmapped"));
+    }
+
+    @Test
+    public void testTraceMatchesConvert()
+    {
+        String[] texts = {"", "இ", "இரத்தம் ஜெயம்", "மூச்சு சேர் சசு", "a\u0bcdb", "\u0bbe\u0bbf"};
+        for (String text : texts) {
+            assertEquals(Transliterator.DEFAULT.convert(text), Transliterator.DEFAULT.trace(text).getConvertedText());
+        }
+    }
+
+    @Test
+    public void testShareBetweenThreads() throws Exception
+    {
+        final String text = "இயேசு ராஜனே மூச்சு சேர் அன்பு";
+        final String expected = iso15919.convert(text);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call()
+                    {
+                        for (int j = 0; j < 1000; j++) {
+                            if (!expected.equals(iso15919.convert(text))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
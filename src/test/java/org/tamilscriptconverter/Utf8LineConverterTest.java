@@ -0,0 +1,125 @@
+package org.tamilscriptconverter;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * @since 1.0
+ */
+public class Utf8LineConverterTest
+{
+    private static final SongFormat MARKERS_FORMAT = new SongFormat(Transliterator.DEFAULT,
+            SectionHeaderParser.valueOf("Chorus,Pallavi,பல்லவி=Chorus"));
+
+    @Test
+    public void testConvertLines() throws IOException
+    {
+        String[] texts = {"", "\n", "\r\n\r", "  \t", "　 ", "இயேசு ராஜனே", "  இயேசு\r\nராஜனே\rஅன்பு\n\n",
+                "1. இயேசு", "12 ராஜனே", "1க", "9", "Chorus: அன்பு", "பல்லவி 2) அன்பு", "பல்லவி", "pallavi x",
+                "இரக்கம்", "இ", "ா அம்மா", "ௐ om", "a்b", "சு சு சேர்", "emoji 😀 ம்", "ǆ letter",
+                " nbsp", "இசா", "3ஆம் வசனம்", "ா12 அன்பு", "1😀 இயேசு", "ாஇயேசு", "்இரர",
+                "no line feed"};
+        for (String text : texts) {
+            assertConverted(SongFormat.DEFAULT, text.getBytes(StandardCharsets.UTF_8));
+            assertConverted(MARKERS_FORMAT, text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testConvertSong() throws IOException
+    {
+        assertConverted(SongFormat.DEFAULT, Files.readAllBytes(Paths.get("src/test/resources/ejamaananae-source.txt")));
+    }
+
+    @Test
+    public void testConvertMalformedBytes() throws IOException
+    {
+        byte[][] texts = {{(byte) 0xe0, (byte) 0xae}, {'a', (byte) 0xff, 'b'}, {(byte) 0xe0, (byte) 0xae, '\n'},
+                {(byte) 0xed, (byte) 0xa0, (byte) 0x80}, {(byte) 0xc0, (byte) 0x80}, {(byte) 0xf4, (byte) 0x90,
+                (byte) 0x80, (byte) 0x80}, {(byte) 0xe0, (byte) 0x80, (byte) 0x80}, {' ', (byte) 0x80}};
+        for (byte[] text : texts) {
+            assertConverted(SongFormat.DEFAULT, text);
+        }
+    }
+
+    @Test
+    public void testConvertRandomText() throws IOException
+    {
+        Random random = new Random(11);
+        char[] chars = "அஆஇஈஉஎஏஐஒகஙசஞடணதநனபமயரறலளழவஜஷஸஹாிீுூெேைொோௌ்"
+                .toCharArray();
+        for (int i = 0; i < 200; i++) {
+            byte[] text = new byte[random.nextInt(300)];
+            int length = 0;
+            while (length < text.length) {
+                byte[] bytes;
+                int type = random.nextInt(10);
+                if (type < 6) {
+                    bytes = String.valueOf(chars[random.nextInt(chars.length)]).getBytes(StandardCharsets.UTF_8);
+                } else if (type < 9) {
+                    bytes = new byte[]{(byte) " \n\r1.aZ:".charAt(random.nextInt(8))};
+                } else {
+                    bytes = new byte[]{(byte) random.nextInt(256)};
+                }
+                int count = Math.min(bytes.length, text.length - length);
+                System.arraycopy(bytes, 0, text, length, count);
+                length += count;
+            }
+            assertConverted(SongFormat.DEFAULT, text);
+            assertConverted(MARKERS_FORMAT, text);
+        }
+    }
+
+    /**
+     * Checks that the given UTF-8 text is converted like its decoded lines by {@link SongFormat#writeLine}, whether
+     * it is read from a stream a few bytes at a time or converted at once.
+     */
+    private static void assertConverted(SongFormat format, byte[] text) throws IOException
+    {
+        StringWriter writer = new StringWriter();
+        BufferedReader reader = new BufferedReader(new StringReader(new String(text, StandardCharsets.UTF_8)));
+        long lineCount = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            format.writeLine(line, writer);
+            lineCount++;
+        }
+        String expected = writer.toString();
+        Utf8LineConverter converter = new Utf8LineConverter(format);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(lineCount, converter.convert(text, 0, text.length, out));
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        out.reset();
+        assertEquals(lineCount, converter.convert(new SlowInputStream(text), out));
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a few bytes at a time, so that the lines and chars are split between the reads.
+     */
+    private static class SlowInputStream extends ByteArrayInputStream
+    {
+        SlowInputStream(byte[] bytes)
+        {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] bytes, int offset, int length)
+        {
+            return super.read(bytes, offset, Math.min(length, 3));
+        }
+    }
+}